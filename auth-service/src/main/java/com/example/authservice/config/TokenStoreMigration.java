@@ -0,0 +1,67 @@
+package com.example.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the tables auth-service keeps its signing keys and refresh sessions in, so every replica signs
+ * with the same keys and they survive a restart.
+ * <p>
+ * Runs while the context starts, before the key ring loads its keys. Does nothing once the tables exist.
+ */
+@Slf4j
+@Component
+public class TokenStoreMigration
+        implements InitializingBean {
+
+    private static final long MIGRATION_LOCK_ID = 8_001L;
+
+    private static final String SIGNING_KEY_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS signing_key (
+                key_id VARCHAR(36) PRIMARY KEY,
+                private_key BYTEA NOT NULL,
+                public_key BYTEA NOT NULL,
+                active_from TIMESTAMP WITH TIME ZONE NOT NULL
+            )
+            """;
+
+    private static final String REFRESH_SESSION_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS refresh_session (
+                token_hash CHAR(64) PRIMARY KEY,
+                family_id VARCHAR(36) NOT NULL,
+                user_id BIGINT NOT NULL,
+                username VARCHAR(255),
+                expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                redeemed BOOLEAN NOT NULL DEFAULT FALSE
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TokenStoreMigration(
+            final JdbcTemplate jdbcTemplate,
+            final TransactionTemplate transactionTemplate
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            // Replicas starting together would otherwise race on creating the same table
+            this.jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_ID + ")");
+
+            this.jdbcTemplate.execute(SIGNING_KEY_TABLE_SQL);
+            this.jdbcTemplate.execute(REFRESH_SESSION_TABLE_SQL);
+            this.jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS refresh_session_family_id_idx ON refresh_session (family_id)");
+            this.jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS refresh_session_expires_at_idx ON refresh_session (expires_at)");
+        });
+
+        log.info("Signing key and refresh session tables are in place");
+    }
+}
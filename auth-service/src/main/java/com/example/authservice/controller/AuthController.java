@@ -1,7 +1,10 @@
 package com.example.authservice.controller;
 
 import com.example.authservice.config.ContextHolder;
+import com.example.authservice.dtos.JsonWebKeySet;
 import com.example.authservice.dtos.LoginDto;
+import com.example.authservice.dtos.RevocationFilterDto;
+import com.example.authservice.dtos.TokensDto;
 import com.example.authservice.dtos.UserDto;
 import com.example.authservice.service.IAuthService;
 import io.swagger.v3.oas.annotations.Hidden;
@@ -12,11 +15,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +32,10 @@ import java.util.Map;
 @Tag(name = "Auth")
 public class AuthController {
 
+    public static final String REFRESH_TOKEN = "Refresh-Token";
+
+    private static final Duration JWKS_MAX_AGE = Duration.ofMinutes(5);
+
     private final IAuthService authService;
     private final ContextHolder contextHolder;
 
@@ -42,12 +51,47 @@ public class AuthController {
         @Valid @RequestBody LoginDto loginDto
     ) {
         logRequest(request, loginDto);
-        String jwt = authService.login(loginDto);
+        var tokens = authService.login(loginDto);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        return ResponseEntity.noContent().headers(tokenHeaders(tokens)).build();
+    }
+
+    @Operation(
+        summary = "Exchanges a refresh token for a new access token and refresh token",
+        description = "Refresh tokens are single use, presenting one again revokes every token issued from the same login.",
+        responses = {
+            @ApiResponse(responseCode = "204"),
+            @ApiResponse(responseCode = "401", description = "The refresh token is invalid, expired or was already used"),
+            @ApiResponse(responseCode = "503", description = "The user could not be read, the refresh token can be presented again")
+        }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<Object> refresh(
+        HttpServletRequest request,
+        @RequestHeader(REFRESH_TOKEN) String refreshToken
+    ) {
+        logRequest(request, null);
+        var tokens = authService.refresh(refreshToken);
 
-        return ResponseEntity.noContent().headers(headers).build();
+        return ResponseEntity.noContent().headers(tokenHeaders(tokens)).build();
+    }
+
+    @Operation(
+        summary = "Revokes the access token and, if given, the refresh token",
+        responses = {
+            @ApiResponse(responseCode = "204")
+        }
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Object> logout(
+        HttpServletRequest request,
+        @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+        @RequestHeader(value = REFRESH_TOKEN, required = false) String refreshToken
+    ) {
+        logRequest(request, null);
+        authService.logout(authHeader.replace("Bearer ", ""), refreshToken);
+
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(
@@ -90,6 +134,34 @@ public class AuthController {
         return ResponseEntity.ok().headers(headers).build();
     }
 
+    @Operation(
+        summary = "Returns the public keys access tokens are signed with, as a JSON Web Key Set",
+        responses = {
+            @ApiResponse(responseCode = "200")
+        }
+    )
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<JsonWebKeySet> getJsonWebKeySet() {
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.maxAge(JWKS_MAX_AGE).cachePublic())
+                             .body(authService.getJsonWebKeySet());
+    }
+
+    @Hidden
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationFilterDto> getRevocationFilter() {
+        return ResponseEntity.ok()
+                             .cacheControl(CacheControl.noCache())
+                             .body(authService.getRevocationFilter());
+    }
+
+    private static HttpHeaders tokenHeaders(TokensDto tokens) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken());
+        headers.set(REFRESH_TOKEN, tokens.refreshToken());
+        return headers;
+    }
+
     private void logRequest(HttpServletRequest request, Object body) {
         log.info("{} - {} - {} - {} - {}",
             request.getMethod(),
@@ -8,6 +8,8 @@ public class AuthException
     public static final String USERNAME_AND_EMAIL_NULL = "You must specify either an email or an username";
     public static final String NOT_FOUND = "User not found";
     public static final String GENERIC_LOGIN_FAIL = "User not found or password is wrong";
+    public static final String INVALID_REFRESH_TOKEN = "Refresh token is invalid or expired";
+    public static final String USER_SERVICE_UNAVAILABLE = "The user could not be read, try again later";
     public HttpStatusCode statusCode;
 
     public AuthException() {
@@ -0,0 +1,11 @@
+package com.example.authservice.dtos;
+
+public record JsonWebKey(
+        String kty,
+        String kid,
+        String use,
+        String alg,
+        String n,
+        String e
+) {
+}
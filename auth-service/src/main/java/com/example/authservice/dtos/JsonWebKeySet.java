@@ -0,0 +1,8 @@
+package com.example.authservice.dtos;
+
+import java.util.List;
+
+public record JsonWebKeySet(
+        List<JsonWebKey> keys
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.authservice.dtos;
+
+public record RevocationFilterDto(
+        int hashFunctions,
+        long[] bits
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.authservice.dtos;
+
+public record TokensDto(
+        String accessToken,
+        String refreshToken
+) {
+}
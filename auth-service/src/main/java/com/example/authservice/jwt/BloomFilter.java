@@ -0,0 +1,92 @@
+package com.example.authservice.jwt;
+
+/**
+ * Fixed-size Bloom filter over strings. Hashing walks the characters directly, so checks do not allocate.
+ * <p>
+ * The gateway reads the bits this filter writes with its own copy of this class, both must hash the same way.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long FIRST_SEED = 0xcbf29ce484222325L;
+    private static final long SECOND_SEED = 0x84222325cbf29ce4L;
+
+    private final long[] bits;
+    private final int hashFunctions;
+    private final long bitCount;
+
+    public BloomFilter(
+            final long[] bits,
+            final int hashFunctions
+    ) {
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+        this.bitCount = (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * Creates a filter sized for the expected number of values and false positive probability.
+     */
+    public static BloomFilter create(
+            final int expectedInsertions,
+            final double falsePositiveProbability
+    ) {
+        var bitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        var hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        return new BloomFilter(new long[(int) ((bitCount + Long.SIZE - 1) / Long.SIZE)], hashFunctions);
+    }
+
+    public void put(final String value) {
+        var first = hash(value, FIRST_SEED);
+        var second = hash(value, SECOND_SEED) | 1;
+
+        for (int i = 0; i < this.hashFunctions; i++) {
+            var index = Math.floorMod(first + i * second, this.bitCount);
+            this.bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(final String value) {
+        var first = hash(value, FIRST_SEED);
+        var second = hash(value, SECOND_SEED) | 1;
+
+        for (int i = 0; i < this.hashFunctions; i++) {
+            var index = Math.floorMod(first + i * second, this.bitCount);
+            if ((this.bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long[] bits() {
+        return this.bits;
+    }
+
+    public int hashFunctions() {
+        return this.hashFunctions;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 mixer to spread the bits.
+     */
+    private static long hash(
+            final String value,
+            final long seed
+    ) {
+        var hash = seed;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
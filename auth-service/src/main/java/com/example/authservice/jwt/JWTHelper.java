@@ -3,32 +3,64 @@ package com.example.authservice.jwt;
 import com.example.authservice.dtos.UserDto;
 import com.example.authservice.dtos.UserHeader;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Base64;
 import java.util.Date;
 import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JWTHelper {
-    private static final String SECRET_KEY = "LSE1yJq4TJuIneLtE1ZjwkGITMQJrgiFFZr8vOTGCWc=";
 
-    private static final SecretKey key = new SecretKeySpec(Base64.getDecoder()
-                                                             .decode(SECRET_KEY), "HmacSHA256");
+    private static final String ISSUER = "auth-service";
+    private static final String AUDIENCE = "e-commerce-store";
 
-    public String generateToken(UserDto user) throws JsonProcessingException {
+    private final SigningKeyRing signingKeyRing;
+    private final RevocationList revocationList;
+    private final Duration accessTokenTtl;
+    private final JwtParser parser;
+
+    public JWTHelper(
+            final SigningKeyRing signingKeyRing,
+            final RevocationList revocationList,
+            @Value("${api.jwt.access-token-ttl:24h}")
+            final Duration accessTokenTtl
+    ) {
+        this.signingKeyRing = signingKeyRing;
+        this.revocationList = revocationList;
+        this.accessTokenTtl = accessTokenTtl;
+        this.parser = Jwts.parserBuilder()
+                          .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                              @Override
+                              public Key resolveSigningKey(
+                                      final JwsHeader header,
+                                      final Claims claims
+                              ) {
+                                  return signingKeyRing.publicKey(header.getKeyId())
+                                                       .orElseThrow(() -> new JwtException("Unknown signing key " + header.getKeyId()));
+                              }
+                          })
+                          .requireIssuer(ISSUER)
+                          .requireAudience(AUDIENCE)
+                          .build();
+    }
 
-        var expirationDate = Date.from(Instant.now()
-                                              .plus(1, ChronoUnit.DAYS));
+    public String generateToken(UserDto user) throws JsonProcessingException {
 
-        var issuer = "auth-service";
-        var audience = "e-commerce-store";
+        var now = Instant.now();
+        var expirationDate = Date.from(now.plus(this.accessTokenTtl));
+        var signingKey = this.signingKeyRing.current();
 
         var claims = Jwts.claims();
         claims.put("username", user.username());
@@ -36,22 +68,25 @@ public class JWTHelper {
         claims.put("role", user.role());
 
         return Jwts.builder()
+                   .setHeaderParam(JwsHeader.KEY_ID, signingKey.keyId())
                    .setClaims(claims)
-                   .setIssuedAt(new Date())
-                   .setIssuer(issuer)
-                   .setAudience(audience)
+                   .setId(UUID.randomUUID().toString())
+                   .setIssuedAt(Date.from(now))
+                   .setIssuer(ISSUER)
+                   .setAudience(AUDIENCE)
                    .setExpiration(expirationDate)
-                   .signWith(key)
+                   .signWith(signingKey.keyPair().getPrivate(), SignatureAlgorithm.RS256)
                    .compact();
     }
 
     public Optional<UserHeader> decodeJWT(String token) {
         try {
-            var claims = Jwts.parserBuilder()
-                             .setSigningKey(key)
-                             .build()
-                             .parseClaimsJws(token)
-                             .getBody();
+            var claims = this.parser.parseClaimsJws(token)
+                                    .getBody();
+
+            if (claims.getId() != null && this.revocationList.isRevoked(claims.getId())) {
+                return Optional.empty();
+            }
 
             var userId = claims.get("userId", Long.class);
             var username = claims.get("username", String.class);
@@ -63,4 +98,20 @@ public class JWTHelper {
             return Optional.empty();
         }
     }
+
+    /**
+     * Revokes a valid access token until it expires. Invalid tokens are ignored, they are not accepted anyway.
+     */
+    public void revokeToken(String token) {
+        try {
+            var claims = this.parser.parseClaimsJws(token)
+                                    .getBody();
+
+            if (claims.getId() != null) {
+                this.revocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+            }
+        } catch (JwtException e) {
+            // Nothing to revoke
+        }
+    }
 }
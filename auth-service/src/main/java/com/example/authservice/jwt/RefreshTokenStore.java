@@ -0,0 +1,167 @@
+package com.example.authservice.jwt;
+
+import com.example.authservice.dtos.UserDto;
+import com.example.authservice.repository.IRefreshSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens, stored by their SHA-256 hash. Redeeming a token hands out a new one
+ * in the same family; presenting an already redeemed token again revokes the whole family,
+ * since one of the two holders must have stolen it.
+ * <p>
+ * Sessions are kept in the database, so they survive restarts and any replica can redeem a token another one issued.
+ * Only the id and username of the user are kept, the caller reads the user again on every redemption.
+ */
+@Slf4j
+@Component
+@DependsOn("tokenStoreMigration")
+public class RefreshTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    public record Holder(
+            Long userId,
+            String username
+    ) {
+    }
+
+    public record Redemption(
+            Long userId,
+            String username,
+            String refreshToken
+    ) {
+    }
+
+    public record RefreshSession(
+            String tokenHash,
+            String familyId,
+            Long userId,
+            String username,
+            Instant expiresAt,
+            boolean redeemed
+    ) {
+    }
+
+    private final IRefreshSessionRepository refreshSessionRepository;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenStore(
+            final IRefreshSessionRepository refreshSessionRepository,
+            @Value("${api.jwt.refresh-token-ttl:7d}")
+            final Duration refreshTokenTtl
+    ) {
+        this.refreshSessionRepository = refreshSessionRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    /**
+     * Starts a new family for a login.
+     */
+    public String issue(final UserDto user) {
+        return this.issue(UUID.randomUUID().toString(), user.id(), user.username());
+    }
+
+    /**
+     * Tells who a refresh token was issued to, without redeeming it.
+     *
+     * @return The id and username of the user, or empty if the token is unknown or expired.
+     */
+    public Optional<Holder> findHolder(final String refreshToken) {
+        var now = Instant.now();
+
+        return this.refreshSessionRepository.findByTokenHash(hash(refreshToken))
+                                            .filter(session -> session.expiresAt().isAfter(now))
+                                            .map(session -> new Holder(session.userId(), session.username()));
+    }
+
+    /**
+     * Redeems a refresh token.
+     *
+     * @return The id and username of the user the token was issued to and the refresh token that replaces it,
+     * or empty if the token is unknown, expired or was already redeemed.
+     */
+    @Transactional
+    public Optional<Redemption> redeem(final String refreshToken) {
+        var key = hash(refreshToken);
+        var now = Instant.now();
+
+        var redeemed = this.refreshSessionRepository.redeem(key, now);
+
+        if (redeemed.isEmpty()) {
+            this.refreshSessionRepository.findByTokenHash(key)
+                                         .filter(session -> session.redeemed() && session.expiresAt().isAfter(now))
+                                         .ifPresent(session -> {
+                                             log.warn("Refresh token of user {} was redeemed twice, revoking its family", session.userId());
+                                             this.refreshSessionRepository.deleteByFamilyId(session.familyId());
+                                         });
+            return Optional.empty();
+        }
+
+        var session = redeemed.get();
+        var nextRefreshToken = this.issue(session.familyId(), session.userId(), session.username());
+
+        return Optional.of(new Redemption(session.userId(), session.username(), nextRefreshToken));
+    }
+
+    /**
+     * Revokes the refresh token and every token of its family.
+     */
+    @Transactional
+    public void revoke(final String refreshToken) {
+        this.refreshSessionRepository.findByTokenHash(hash(refreshToken))
+                                     .ifPresent(session -> this.refreshSessionRepository.deleteByFamilyId(session.familyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${api.jwt.refresh-tokens.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        this.refreshSessionRepository.deleteExpired(Instant.now());
+    }
+
+    private String issue(
+            final String familyId,
+            final Long userId,
+            final String username
+    ) {
+        var bytes = new byte[TOKEN_BYTES];
+        this.random.nextBytes(bytes);
+        var refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        this.refreshSessionRepository.save(new RefreshSession(
+                hash(refreshToken),
+                familyId,
+                userId,
+                username,
+                Instant.now().plus(this.refreshTokenTtl),
+                false
+        ));
+
+        return refreshToken;
+    }
+
+    private static String hash(final String refreshToken) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                                      .digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.authservice.jwt;
+
+import com.example.authservice.dtos.RevocationFilterDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of access tokens revoked before their expiration. Entries are dropped once the token has expired anyway,
+ * so the list only ever holds one access-token lifetime of revocations.
+ * <p>
+ * Validators get a {@link BloomFilter} of the list: a miss means the token is not revoked,
+ * a hit has to be confirmed with auth-service.
+ */
+@Component
+public class RevocationList {
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final double falsePositiveProbability;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    private volatile RevocationFilterDto filter;
+
+    public RevocationList(
+            @Value("${api.jwt.revocations.false-positive-probability:0.001}")
+            final double falsePositiveProbability
+    ) {
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rebuild();
+    }
+
+    public void revoke(
+            final String tokenId,
+            final Instant expiresAt
+    ) {
+        this.revoked.put(tokenId, expiresAt);
+        this.rebuild();
+    }
+
+    public boolean isRevoked(final String tokenId) {
+        return this.revoked.containsKey(tokenId);
+    }
+
+    public RevocationFilterDto filter() {
+        return this.filter;
+    }
+
+    @Scheduled(fixedDelayString = "${api.jwt.revocations.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        var now = Instant.now();
+
+        if (this.revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now))) {
+            this.rebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        var bloomFilter = BloomFilter.create(Math.max(MIN_CAPACITY, this.revoked.size() * 2), this.falsePositiveProbability);
+        this.revoked.keySet().forEach(bloomFilter::put);
+
+        this.filter = new RevocationFilterDto(bloomFilter.hashFunctions(), bloomFilter.bits());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.authservice.jwt;
+
+import com.example.authservice.dtos.JsonWebKey;
+import com.example.authservice.dtos.JsonWebKeySet;
+import com.example.authservice.repository.ISigningKeyRepository;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * RSA key pairs tokens are signed with, stored in the database so they survive restarts and every replica
+ * signs with and publishes the same keys.
+ * <p>
+ * A new pair is added every rotation interval by whichever replica gets there first. It is published
+ * {@code publish-ahead} before it starts signing, so verifiers and the other replicas have picked it up by then,
+ * and older pairs stay published until the last token they signed has expired.
+ */
+@Slf4j
+@Component
+@DependsOn("tokenStoreMigration")
+public class SigningKeyRing
+        implements InitializingBean {
+
+    public record SigningKey(
+            String keyId,
+            KeyPair keyPair,
+            Instant activeFrom
+    ) {
+    }
+
+    private final ISigningKeyRepository signingKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration accessTokenTtl;
+    private final int keySize;
+
+    /**
+     * Newest first, the ones not active yet included
+     */
+    private volatile List<SigningKey> keys;
+    private volatile JsonWebKeySet jsonWebKeySet;
+
+    public SigningKeyRing(
+            final ISigningKeyRepository signingKeyRepository,
+            final TransactionTemplate transactionTemplate,
+            @Value("${api.jwt.signing-keys.rotation-interval:24h}")
+            final Duration rotationInterval,
+            @Value("${api.jwt.signing-keys.publish-ahead:15m}")
+            final Duration publishAhead,
+            @Value("${api.jwt.signing-keys.key-size:2048}")
+            final int keySize,
+            @Value("${api.jwt.access-token-ttl:24h}")
+            final Duration accessTokenTtl
+    ) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        this.accessTokenTtl = accessTokenTtl;
+        this.keySize = keySize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.rotate();
+    }
+
+    /**
+     * @return The key new tokens are signed with, the newest one that is active already.
+     */
+    public SigningKey current() {
+        var now = Instant.now();
+        var keys = this.keys;
+
+        return keys.stream()
+                   .filter(key -> !key.activeFrom().isAfter(now))
+                   .findFirst()
+                   .orElse(keys.get(keys.size() - 1));
+    }
+
+    public Optional<PublicKey> publicKey(final String keyId) {
+        return this.keys.stream()
+                        .filter(key -> key.keyId().equals(keyId))
+                        .findFirst()
+                        .map(key -> key.keyPair().getPublic());
+    }
+
+    public JsonWebKeySet jsonWebKeySet() {
+        return this.jsonWebKeySet;
+    }
+
+    /**
+     * Reloads the keys, adding the next one once the newest is due to be replaced and dropping the ones
+     * no unexpired token can be signed with anymore.
+     */
+    @Scheduled(fixedDelayString = "${api.jwt.signing-keys.rotation-check-interval-ms:60000}",
+               initialDelayString = "${api.jwt.signing-keys.rotation-check-interval-ms:60000}")
+    public synchronized void rotate() {
+        var keys = this.transactionTemplate.execute(status -> {
+            this.signingKeyRepository.lock();
+
+            var now = Instant.now();
+            var stored = new ArrayList<>(this.signingKeyRepository.findAll());
+
+            if (stored.isEmpty()) {
+                // Nobody can hold a token yet, the first key signs right away
+                stored.add(this.create(now));
+            } else if (!stored.get(0).activeFrom().plus(this.rotationInterval).isAfter(now.plus(this.publishAhead))) {
+                stored.add(0, this.create(now.plus(this.publishAhead)));
+            }
+
+            var retained = this.retained(stored, now);
+            this.signingKeyRepository.deleteAllById(stored.stream()
+                                                          .filter(key -> !retained.contains(key))
+                                                          .map(SigningKey::keyId)
+                                                          .toList());
+            return retained;
+        });
+
+        this.publish(keys);
+    }
+
+    /**
+     * Keeps the keys not active yet, the current one, and older ones that were replaced less than an access-token
+     * lifetime ago.
+     */
+    private List<SigningKey> retained(
+            final List<SigningKey> keys,
+            final Instant now
+    ) {
+        var retained = new ArrayList<SigningKey>();
+        Instant replacedAt = null;
+
+        for (var key : keys) {
+            if (replacedAt == null || replacedAt.plus(this.accessTokenTtl).isAfter(now)) {
+                retained.add(key);
+            }
+            replacedAt = key.activeFrom().isAfter(now) ? null : key.activeFrom();
+        }
+        return retained;
+    }
+
+    private void publish(final List<SigningKey> keys) {
+        this.jsonWebKeySet = new JsonWebKeySet(keys.stream()
+                                                   .map(SigningKeyRing::toJsonWebKey)
+                                                   .toList());
+        this.keys = List.copyOf(keys);
+    }
+
+    private SigningKey create(final Instant activeFrom) {
+        try {
+            var generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(this.keySize);
+
+            var key = new SigningKey(UUID.randomUUID().toString(), generator.generateKeyPair(), activeFrom);
+            this.signingKeyRepository.save(key);
+
+            log.info("Added token signing key {}, signing from {}", key.keyId(), activeFrom);
+            return key;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonWebKey toJsonWebKey(final SigningKey key) {
+        var publicKey = (RSAPublicKey) key.keyPair().getPublic();
+
+        return new JsonWebKey(
+                "RSA",
+                key.keyId(),
+                "sig",
+                SignatureAlgorithm.RS256.getValue(),
+                base64Url(publicKey.getModulus()),
+                base64Url(publicKey.getPublicExponent())
+        );
+    }
+
+    private static String base64Url(final BigInteger value) {
+        var bytes = value.toByteArray();
+
+        // JWK integers are unsigned, drop the sign byte BigInteger adds when the high bit is set
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
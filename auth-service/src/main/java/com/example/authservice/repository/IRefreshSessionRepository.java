@@ -0,0 +1,32 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.jwt.RefreshTokenStore;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IRefreshSessionRepository {
+
+    void save(RefreshTokenStore.RefreshSession session);
+
+    /**
+     * @param tokenHash The SHA-256 hash of the refresh token, hex encoded.
+     * @return The session, expired or redeemed ones included, or empty if there is none.
+     */
+    Optional<RefreshTokenStore.RefreshSession> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the session redeemed if it is not yet, in a single statement, so only one of two concurrent
+     * redemptions of the same token succeeds.
+     *
+     * @return The session, or empty if it is unknown, expired or was already redeemed.
+     */
+    Optional<RefreshTokenStore.RefreshSession> redeem(
+            String tokenHash,
+            Instant now
+    );
+
+    void deleteByFamilyId(String familyId);
+
+    int deleteExpired(Instant now);
+}
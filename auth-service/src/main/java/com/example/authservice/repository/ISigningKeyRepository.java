@@ -0,0 +1,22 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.jwt.SigningKeyRing;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ISigningKeyRepository {
+    /**
+     * Blocks until no other replica is changing the keys, until the end of the current transaction.
+     */
+    void lock();
+
+    /**
+     * @return Every stored key, newest first.
+     */
+    List<SigningKeyRing.SigningKey> findAll();
+
+    void save(SigningKeyRing.SigningKey signingKey);
+
+    void deleteAllById(Collection<String> keyIds);
+}
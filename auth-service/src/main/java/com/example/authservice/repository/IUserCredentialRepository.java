@@ -0,0 +1,26 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.dtos.UserDto;
+
+import java.util.Optional;
+
+public interface IUserCredentialRepository {
+    /**
+     * Finds the user with the given username and password hash, reading the users table directly.
+     *
+     * @param username     The username.
+     * @param passwordHash The SHA-256 hash of the password, hex encoded, as user-service stores it.
+     * @return The user, without the password, or empty if the credentials don't match.
+     */
+    Optional<UserDto> findByUsernameAndPasswordHash(
+            String username,
+            String passwordHash
+    );
+
+    /**
+     * Finds the user by id, reading the users table directly.
+     *
+     * @return The user, without the password, or empty if it does not exist anymore.
+     */
+    Optional<UserDto> findById(Long id);
+}
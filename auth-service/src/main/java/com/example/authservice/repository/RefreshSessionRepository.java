@@ -0,0 +1,76 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.jwt.RefreshTokenStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class RefreshSessionRepository
+        implements IRefreshSessionRepository {
+
+    private static final String COLUMNS = "token_hash, family_id, user_id, username, expires_at, redeemed";
+
+    private static final RowMapper<RefreshTokenStore.RefreshSession> REFRESH_SESSION_ROW_MAPPER = (rs, rowNum) -> new RefreshTokenStore.RefreshSession(
+            rs.getString("token_hash"),
+            rs.getString("family_id"),
+            rs.getLong("user_id"),
+            rs.getString("username"),
+            rs.getTimestamp("expires_at").toInstant(),
+            rs.getBoolean("redeemed")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void save(final RefreshTokenStore.RefreshSession session) {
+        this.jdbcTemplate.update(
+                "INSERT INTO refresh_session (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+                session.tokenHash(),
+                session.familyId(),
+                session.userId(),
+                session.username(),
+                Timestamp.from(session.expiresAt()),
+                session.redeemed()
+        );
+    }
+
+    @Override
+    public Optional<RefreshTokenStore.RefreshSession> findByTokenHash(final String tokenHash) {
+        return this.jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM refresh_session WHERE token_hash = ?",
+                REFRESH_SESSION_ROW_MAPPER,
+                tokenHash
+        ).stream().findFirst();
+    }
+
+    @Override
+    public Optional<RefreshTokenStore.RefreshSession> redeem(
+            final String tokenHash,
+            final Instant now
+    ) {
+        return this.jdbcTemplate.query(
+                "UPDATE refresh_session SET redeemed = TRUE "
+                + "WHERE token_hash = ? AND NOT redeemed AND expires_at > ? RETURNING " + COLUMNS,
+                REFRESH_SESSION_ROW_MAPPER,
+                tokenHash,
+                Timestamp.from(now)
+        ).stream().findFirst();
+    }
+
+    @Override
+    public void deleteByFamilyId(final String familyId) {
+        this.jdbcTemplate.update("DELETE FROM refresh_session WHERE family_id = ?", familyId);
+    }
+
+    @Override
+    public int deleteExpired(final Instant now) {
+        return this.jdbcTemplate.update("DELETE FROM refresh_session WHERE expires_at < ?", Timestamp.from(now));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.jwt.SigningKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Key pairs stored PKCS#8 and X.509 encoded. The private keys are not encrypted, so the table is as
+ * sensitive as the database credentials that can read it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SigningKeyRepository
+        implements ISigningKeyRepository {
+
+    private static final long SIGNING_KEY_LOCK_ID = 8_002L;
+
+    private static final RowMapper<SigningKeyRing.SigningKey> SIGNING_KEY_ROW_MAPPER = (rs, rowNum) -> new SigningKeyRing.SigningKey(
+            rs.getString("key_id"),
+            toKeyPair(rs.getBytes("private_key"), rs.getBytes("public_key")),
+            rs.getTimestamp("active_from").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lock() {
+        this.jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + SIGNING_KEY_LOCK_ID + ")");
+    }
+
+    @Override
+    public List<SigningKeyRing.SigningKey> findAll() {
+        return this.jdbcTemplate.query(
+                "SELECT key_id, private_key, public_key, active_from FROM signing_key ORDER BY active_from DESC",
+                SIGNING_KEY_ROW_MAPPER
+        );
+    }
+
+    @Override
+    public void save(final SigningKeyRing.SigningKey signingKey) {
+        this.jdbcTemplate.update(
+                "INSERT INTO signing_key (key_id, private_key, public_key, active_from) VALUES (?, ?, ?, ?)",
+                signingKey.keyId(),
+                signingKey.keyPair().getPrivate().getEncoded(),
+                signingKey.keyPair().getPublic().getEncoded(),
+                Timestamp.from(signingKey.activeFrom())
+        );
+    }
+
+    @Override
+    public void deleteAllById(final Collection<String> keyIds) {
+        if (keyIds.isEmpty()) {
+            return;
+        }
+
+        this.jdbcTemplate.update(
+                "DELETE FROM signing_key WHERE key_id = ANY (?)",
+                preparedStatement -> preparedStatement.setArray(
+                        1,
+                        preparedStatement.getConnection()
+                                         .createArrayOf("varchar", keyIds.toArray())
+                )
+        );
+    }
+
+    private static KeyPair toKeyPair(
+            final byte[] privateKey,
+            final byte[] publicKey
+    ) {
+        try {
+            var keyFactory = KeyFactory.getInstance("RSA");
+
+            return new KeyPair(
+                    keyFactory.generatePublic(new X509EncodedKeySpec(publicKey)),
+                    keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKey))
+            );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.authservice.repository;
+
+import com.example.authservice.dtos.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Read-only view of user-service's users table. The lookup is answered from the
+ * users_username_login_idx covering index user-service creates, without touching the table.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "api.user-credentials.direct-lookup",
+                       havingValue = "true")
+public class UserCredentialRepository
+        implements IUserCredentialRepository {
+
+    private static final RowMapper<UserDto> USER_ROW_MAPPER = (rs, rowNum) -> new UserDto(
+            rs.getLong("id"),
+            rs.getString("name"),
+            null,
+            rs.getString("email"),
+            rs.getString("username"),
+            null,
+            null
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<UserDto> findByUsernameAndPasswordHash(
+            final String username,
+            final String passwordHash
+    ) {
+        return this.jdbcTemplate.query(
+                "SELECT id, name, email, username FROM users WHERE username = ? AND password = ?",
+                USER_ROW_MAPPER,
+                username,
+                passwordHash
+        ).stream().findFirst();
+    }
+
+    @Override
+    public Optional<UserDto> findById(final Long id) {
+        return this.jdbcTemplate.query(
+                "SELECT id, name, email, username FROM users WHERE id = ?",
+                USER_ROW_MAPPER,
+                id
+        ).stream().findFirst();
+    }
+}
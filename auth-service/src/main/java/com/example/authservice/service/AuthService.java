@@ -1,36 +1,86 @@
 package com.example.authservice.service;
 
 import com.example.authservice.controller.AuthException;
+import com.example.authservice.dtos.JsonWebKeySet;
 import com.example.authservice.dtos.LoginDto;
+import com.example.authservice.dtos.RevocationFilterDto;
+import com.example.authservice.dtos.TokensDto;
 import com.example.authservice.dtos.UserDto;
 import com.example.authservice.dtos.UserHeader;
 import com.example.authservice.jwt.JWTHelper;
+import com.example.authservice.jwt.RefreshTokenStore;
+import com.example.authservice.jwt.RevocationList;
+import com.example.authservice.jwt.SigningKeyRing;
+import com.example.authservice.repository.IUserCredentialRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.hash.Hashing;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService
         implements IAuthService {
 
     private final JWTHelper jwtHelper;
+    private final SigningKeyRing signingKeyRing;
+    private final RefreshTokenStore refreshTokenStore;
+    private final RevocationList revocationList;
     private final IUserServiceClient userServiceClient;
+    private final Optional<IUserCredentialRepository> userCredentialRepository;
 
     @Override
-    public String login(final LoginDto loginDto) {
+    public TokensDto login(final LoginDto loginDto) {
 
-        var user = this.userServiceClient.getUserForLogin(loginDto)
-                                         .orElseThrow(() -> new AuthException(AuthException.GENERIC_LOGIN_FAIL));
+        var user = this.findUserForLogin(loginDto)
+                       .orElseThrow(() -> new AuthException(AuthException.GENERIC_LOGIN_FAIL));
 
-        try {
-            return this.jwtHelper.generateToken(user);
-        } catch (JsonProcessingException e) {
-            throw new AuthException(AuthException.GENERIC_LOGIN_FAIL);
-        }
+        return new TokensDto(this.generateToken(user), this.refreshTokenStore.issue(user));
     }
 
+    @Override
+    public TokensDto refresh(final String refreshToken) {
+        var holder = this.refreshTokenStore.findHolder(refreshToken)
+                                           .orElseThrow(() -> new AuthException(
+                                                   HttpStatus.UNAUTHORIZED,
+                                                   AuthException.INVALID_REFRESH_TOKEN
+                                           ));
+
+        // Read the user again before the token is spent, so role and account changes made since the login
+        // are not carried over, and a user-service outage leaves the token usable for a retry
+        var user = this.findUser(holder.userId(), holder.username())
+                       .orElseThrow(() -> {
+                           this.refreshTokenStore.revoke(refreshToken);
+                           return new AuthException(HttpStatus.UNAUTHORIZED, AuthException.INVALID_REFRESH_TOKEN);
+                       });
+
+        var redemption = this.refreshTokenStore.redeem(refreshToken)
+                                               .orElseThrow(() -> new AuthException(
+                                                       HttpStatus.UNAUTHORIZED,
+                                                       AuthException.INVALID_REFRESH_TOKEN
+                                               ));
+
+        return new TokensDto(this.generateToken(user), redemption.refreshToken());
+    }
+
+    @Override
+    public void logout(
+            final String accessToken,
+            final String refreshToken
+    ) {
+        this.jwtHelper.revokeToken(accessToken);
+
+        if (refreshToken != null) {
+            this.refreshTokenStore.revoke(refreshToken);
+        }
+    }
 
     @Override
     public UserHeader validateToken(final String jwt) {
@@ -49,4 +99,66 @@ public class AuthService
             throw new AuthException(HttpStatus.BAD_REQUEST, "Registration failed: " + e.getMessage());
         }
     }
+
+    @Override
+    public JsonWebKeySet getJsonWebKeySet() {
+        return this.signingKeyRing.jsonWebKeySet();
+    }
+
+    @Override
+    public RevocationFilterDto getRevocationFilter() {
+        return this.revocationList.filter();
+    }
+
+    /**
+     * Checks the credentials against the users table when the direct lookup is enabled, which saves the hop to
+     * user-service. It shares user-service's database, so a miss is final; user-service is only asked when
+     * the lookup is disabled or the database can't be reached.
+     */
+    private Optional<UserDto> findUserForLogin(final LoginDto loginDto) {
+        if (this.userCredentialRepository.isPresent() && loginDto.username() != null) {
+            var passwordHash = Hashing.sha256()
+                                      .hashString(loginDto.password(), StandardCharsets.UTF_8)
+                                      .toString();
+            try {
+                return this.userCredentialRepository.get()
+                                                    .findByUsernameAndPasswordHash(loginDto.username(), passwordHash);
+            } catch (DataAccessException e) {
+                log.warn("Direct credential lookup failed, asking user-service: {}", e.getMessage());
+            }
+        }
+
+        return this.userServiceClient.getUserForLogin(loginDto);
+    }
+
+    /**
+     * Like {@link #findUserForLogin(LoginDto)}, by id.
+     *
+     * @return The user, or empty only if it definitely does not exist anymore.
+     * @throws AuthException With 503 if neither the database nor user-service could answer.
+     */
+    private Optional<UserDto> findUser(
+            final Long userId,
+            final String username
+    ) {
+        if (this.userCredentialRepository.isPresent()) {
+            try {
+                return this.userCredentialRepository.get()
+                                                    .findById(userId);
+            } catch (DataAccessException e) {
+                log.warn("Direct user lookup failed, asking user-service: {}", e.getMessage());
+            }
+        }
+
+        return this.userServiceClient.getUser(userId, username)
+                                     .filter(user -> userId.equals(user.id()));
+    }
+
+    private String generateToken(final UserDto user) {
+        try {
+            return this.jwtHelper.generateToken(user);
+        } catch (JsonProcessingException e) {
+            throw new AuthException(AuthException.GENERIC_LOGIN_FAIL);
+        }
+    }
 }
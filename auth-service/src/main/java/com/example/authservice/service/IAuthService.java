@@ -1,13 +1,24 @@
 package com.example.authservice.service;
 
+import com.example.authservice.dtos.JsonWebKeySet;
 import com.example.authservice.dtos.LoginDto;
+import com.example.authservice.dtos.RevocationFilterDto;
+import com.example.authservice.dtos.TokensDto;
 import com.example.authservice.dtos.UserDto;
 import com.example.authservice.dtos.UserHeader;
 
 public interface IAuthService {
-    String login(LoginDto loginDto);
+    TokensDto login(LoginDto loginDto);
+
+    TokensDto refresh(String refreshToken);
+
+    void logout(String accessToken, String refreshToken);
 
     UserHeader validateToken(String jwt);
 
     boolean register(UserDto userDto);
+
+    JsonWebKeySet getJsonWebKeySet();
+
+    RevocationFilterDto getRevocationFilter();
 }
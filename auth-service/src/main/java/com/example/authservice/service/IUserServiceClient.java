@@ -9,4 +9,15 @@ public interface IUserServiceClient {
     Optional<UserDto> getUserForLogin(final LoginDto loginDto);
 
     boolean createUser(final UserDto userDto);
+
+    /**
+     * Gets the user as user-service's {@code /me} sees it for the given id and username.
+     *
+     * @return The user, or empty if user-service answered that it does not exist.
+     * @throws com.example.authservice.controller.AuthException With 503 if user-service could not answer.
+     */
+    Optional<UserDto> getUser(
+            final Long userId,
+            final String username
+    );
 }
@@ -7,8 +7,13 @@ import com.example.authservice.dto.UserCreateDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Optional;
@@ -69,4 +74,30 @@ public class UserServiceClient
             throw new AuthException(HttpStatus.BAD_REQUEST, "Failed to create user: " + e.getMessage());
         }
     }
+
+    @Override
+    public Optional<UserDto> getUser(
+            final Long userId,
+            final String username
+    ) {
+        try {
+            var headers = new HttpHeaders();
+            headers.set("userId", userId.toString());
+            headers.set("username", username);
+
+            var response = this.restTemplate.exchange(
+                    this.userServiceUrl + "/me",
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    UserDto.class
+            );
+
+            return Optional.ofNullable(response.getBody());
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        } catch (RestClientException e) {
+            log.warn("Error getting user {} from user-service: {}", userId, e.getMessage());
+            throw new AuthException(HttpStatus.SERVICE_UNAVAILABLE, AuthException.USER_SERVICE_UNAVAILABLE);
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package com.example.authservice.jwt;
+
+import com.example.authservice.dtos.UserDto;
+import com.example.authservice.repository.IRefreshSessionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    private static final String REFRESH_TOKEN = "refresh-token";
+    private static final String FAMILY_ID = "family-1";
+
+    @Mock
+    IRefreshSessionRepository refreshSessionRepository;
+    RefreshTokenStore refreshTokenStore;
+
+    @BeforeEach
+    void beforeEach() {
+        this.refreshTokenStore = new RefreshTokenStore(this.refreshSessionRepository, Duration.ofDays(7));
+    }
+
+    @Test
+    void issue_WhenUserLogsIn_ShouldStoreOnlyTheHashOfTheToken() throws Exception {
+        //Arrange
+        var user = new UserDto(1L, "Name", "Last name", "user@example.com", "user", "password", "USER");
+        var captor = ArgumentCaptor.forClass(RefreshTokenStore.RefreshSession.class);
+
+        //Act
+        var refreshToken = this.refreshTokenStore.issue(user);
+
+        //Assert
+        verify(this.refreshSessionRepository).save(captor.capture());
+        var session = captor.getValue();
+        Assertions.assertEquals(hash(refreshToken), session.tokenHash());
+        Assertions.assertEquals(1L, session.userId());
+        Assertions.assertEquals("user", session.username());
+        Assertions.assertFalse(session.redeemed());
+        Assertions.assertTrue(session.expiresAt().isAfter(Instant.now().plus(Duration.ofDays(6))));
+    }
+
+    @Test
+    void redeem_WhenTokenIsValid_ShouldIssueTheNextTokenInTheSameFamily() throws Exception {
+        //Arrange
+        when(this.refreshSessionRepository.redeem(eq(hash(REFRESH_TOKEN)), any()))
+                .thenReturn(Optional.of(session(true, Instant.now().plusSeconds(600))));
+        var captor = ArgumentCaptor.forClass(RefreshTokenStore.RefreshSession.class);
+
+        //Act
+        var redemption = this.refreshTokenStore.redeem(REFRESH_TOKEN);
+
+        //Assert
+        Assertions.assertTrue(redemption.isPresent());
+        Assertions.assertEquals(1L, redemption.get().userId());
+        Assertions.assertNotEquals(REFRESH_TOKEN, redemption.get().refreshToken());
+        verify(this.refreshSessionRepository).save(captor.capture());
+        Assertions.assertEquals(FAMILY_ID, captor.getValue().familyId());
+        Assertions.assertEquals(hash(redemption.get().refreshToken()), captor.getValue().tokenHash());
+        verify(this.refreshSessionRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void redeem_WhenTokenWasAlreadyRedeemed_ShouldRevokeTheWholeFamily() throws Exception {
+        //Arrange
+        when(this.refreshSessionRepository.redeem(eq(hash(REFRESH_TOKEN)), any()))
+                .thenReturn(Optional.empty());
+        when(this.refreshSessionRepository.findByTokenHash(hash(REFRESH_TOKEN)))
+                .thenReturn(Optional.of(session(true, Instant.now().plusSeconds(600))));
+
+        //Act
+        var redemption = this.refreshTokenStore.redeem(REFRESH_TOKEN);
+
+        //Assert
+        Assertions.assertTrue(redemption.isEmpty());
+        verify(this.refreshSessionRepository).deleteByFamilyId(FAMILY_ID);
+        verify(this.refreshSessionRepository, never()).save(any());
+    }
+
+    @Test
+    void redeem_WhenTokenIsUnknown_ShouldRevokeNothing() {
+        //Arrange
+        when(this.refreshSessionRepository.redeem(anyString(), any()))
+                .thenReturn(Optional.empty());
+        when(this.refreshSessionRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.empty());
+
+        //Act
+        var redemption = this.refreshTokenStore.redeem(REFRESH_TOKEN);
+
+        //Assert
+        Assertions.assertTrue(redemption.isEmpty());
+        verify(this.refreshSessionRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void redeem_WhenRedeemedTokenHasExpired_ShouldRevokeNothing() throws Exception {
+        //Arrange
+        when(this.refreshSessionRepository.redeem(eq(hash(REFRESH_TOKEN)), any()))
+                .thenReturn(Optional.empty());
+        when(this.refreshSessionRepository.findByTokenHash(hash(REFRESH_TOKEN)))
+                .thenReturn(Optional.of(session(true, Instant.now().minusSeconds(1))));
+
+        //Act
+        var redemption = this.refreshTokenStore.redeem(REFRESH_TOKEN);
+
+        //Assert
+        Assertions.assertTrue(redemption.isEmpty());
+        verify(this.refreshSessionRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void findHolder_WhenTokenHasExpired_ShouldReturnEmpty() throws Exception {
+        //Arrange
+        when(this.refreshSessionRepository.findByTokenHash(hash(REFRESH_TOKEN)))
+                .thenReturn(Optional.of(session(false, Instant.now().minusSeconds(1))));
+
+        //Act
+        var holder = this.refreshTokenStore.findHolder(REFRESH_TOKEN);
+
+        //Assert
+        Assertions.assertTrue(holder.isEmpty());
+    }
+
+    @Test
+    void revoke_WhenTokenIsKnown_ShouldRevokeItsFamily() throws Exception {
+        //Arrange
+        when(this.refreshSessionRepository.findByTokenHash(hash(REFRESH_TOKEN)))
+                .thenReturn(Optional.of(session(false, Instant.now().plusSeconds(600))));
+
+        //Act
+        this.refreshTokenStore.revoke(REFRESH_TOKEN);
+
+        //Assert
+        verify(this.refreshSessionRepository).deleteByFamilyId(FAMILY_ID);
+    }
+
+    private static RefreshTokenStore.RefreshSession session(
+            final boolean redeemed,
+            final Instant expiresAt
+    ) throws Exception {
+        return new RefreshTokenStore.RefreshSession(hash(REFRESH_TOKEN), FAMILY_ID, 1L, "user", expiresAt, redeemed);
+    }
+
+    private static String hash(final String refreshToken) throws Exception {
+        var digest = MessageDigest.getInstance("SHA-256")
+                                  .digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
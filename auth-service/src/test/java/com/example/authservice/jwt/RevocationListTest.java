@@ -0,0 +1,67 @@
+package com.example.authservice.jwt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+class RevocationListTest {
+
+    private final RevocationList revocationList = new RevocationList(0.001);
+
+    @Test
+    void revoke_WhenTokenIsRevoked_ShouldAddItToTheFilter() {
+        //Act
+        this.revocationList.revoke("jti-1", Instant.now().plusSeconds(600));
+
+        //Assert
+        var bloomFilter = bloomFilter(this.revocationList);
+        Assertions.assertTrue(this.revocationList.isRevoked("jti-1"));
+        Assertions.assertTrue(bloomFilter.mightContain("jti-1"));
+        Assertions.assertFalse(this.revocationList.isRevoked("jti-2"));
+        Assertions.assertFalse(bloomFilter.mightContain("jti-2"));
+    }
+
+    @Test
+    void cleanup_WhenTokenHasExpired_ShouldDropItFromTheListAndTheFilter() {
+        //Arrange
+        this.revocationList.revoke("jti-1", Instant.now().minusSeconds(1));
+        this.revocationList.revoke("jti-2", Instant.now().plusSeconds(600));
+
+        //Act
+        this.revocationList.cleanup();
+
+        //Assert
+        var bloomFilter = bloomFilter(this.revocationList);
+        Assertions.assertFalse(this.revocationList.isRevoked("jti-1"));
+        Assertions.assertFalse(bloomFilter.mightContain("jti-1"));
+        Assertions.assertTrue(this.revocationList.isRevoked("jti-2"));
+        Assertions.assertTrue(bloomFilter.mightContain("jti-2"));
+    }
+
+    @Test
+    void revoke_WhenListOutgrowsTheMinimumCapacity_ShouldGrowTheFilter() {
+        //Arrange
+        var initialBits = this.revocationList.filter().bits().length;
+
+        //Act
+        for (int i = 0; i < 2_000; i++) {
+            this.revocationList.revoke("jti-" + i, Instant.now().plusSeconds(600));
+        }
+
+        //Assert
+        var bloomFilter = bloomFilter(this.revocationList);
+        Assertions.assertTrue(this.revocationList.filter().bits().length > initialBits);
+        for (int i = 0; i < 2_000; i++) {
+            Assertions.assertTrue(bloomFilter.mightContain("jti-" + i));
+        }
+    }
+
+    /**
+     * The filter as the gateway rebuilds it from the transferred bits
+     */
+    private static BloomFilter bloomFilter(final RevocationList revocationList) {
+        var filter = revocationList.filter();
+        return new BloomFilter(filter.bits(), filter.hashFunctions());
+    }
+}
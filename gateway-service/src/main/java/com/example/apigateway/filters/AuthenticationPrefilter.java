@@ -1,6 +1,11 @@
 package com.example.apigateway.filters;
 
-import lombok.RequiredArgsConstructor;
+import com.example.apigateway.jwt.AuthenticatedUser;
+import com.example.apigateway.jwt.JwksKeyProvider;
+import com.example.apigateway.jwt.JwtVerifier;
+import com.example.apigateway.jwt.RevocationFilterProvider;
+import com.example.apigateway.jwt.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -8,58 +13,67 @@ import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.function.Function;
-
 import static com.example.apigateway.filters.CorrelationIdFilter.CORRELATION_ID;
 
+/**
+ * Authenticates requests with the bearer token. Tokens are verified locally with {@link JwtVerifier};
+ * a token signed with a key the gateway does not know first refreshes the keys, and only if the key is still unknown
+ * is auth-service asked about the token.
+ * Either way the outcome is kept in {@link VerifiedTokenCache}, so a token is only checked once per cache entry,
+ * while every request is still checked against the revoked tokens of {@link RevocationFilterProvider}.
+ */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class AuthenticationPrefilter
         implements GatewayFilter {
 
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${api.auth-service}")
-    private String authServiceUrl;
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtVerifier jwtVerifier;
+    private final JwksKeyProvider jwksKeyProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationFilterProvider revocationFilterProvider;
+    private final WebClient authServiceClient;
+    private final String authServiceUrl;
+
+    public AuthenticationPrefilter(
+            final JwtVerifier jwtVerifier,
+            final JwksKeyProvider jwksKeyProvider,
+            final VerifiedTokenCache verifiedTokenCache,
+            final RevocationFilterProvider revocationFilterProvider,
+            final WebClient.Builder webClientBuilder,
+            @Value("${api.auth-service}")
+            final String authServiceUrl
+    ) {
+        this.jwtVerifier = jwtVerifier;
+        this.jwksKeyProvider = jwksKeyProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocationFilterProvider = revocationFilterProvider;
+        this.authServiceClient = webClientBuilder.build();
+        this.authServiceUrl = authServiceUrl;
+    }
 
-    private Function<ResponseEntity<Void>, Mono<? extends Void>> getResponseEntityMonoFunction(
+    private Mono<Void> forward(
             final ServerWebExchange exchange,
-            final GatewayFilterChain chain
+            final GatewayFilterChain chain,
+            final String userId,
+            final String username
     ) {
-        return response -> {
-            if (!response.getStatusCode()
-                         .is2xxSuccessful()) {
-                return this.onError(exchange, response.getStatusCode());
-            }
-
-            var headers = response
-                    .getHeaders();
-
-            var userId = headers.getFirst("userId");
-            var username = headers.getFirst("username");
-
-            if (username == null || userId == null) {
-                return this.onError(exchange, response.getStatusCode());
-            }
-
-            var modifiedRequest = exchange.getRequest()
-                                          .mutate()
-                                          .header("userId", userId)
-                                          .header("username", username)
-                                          .build();
-
-            return chain.filter(exchange.mutate()
-                                        .request(modifiedRequest)
-                                        .build());
-        };
+        var modifiedRequest = exchange.getRequest()
+                                      .mutate()
+                                      .header("userId", userId)
+                                      .header("username", username)
+                                      .build();
+
+        return chain.filter(exchange.mutate()
+                                    .request(modifiedRequest)
+                                    .build());
     }
 
     private Mono<Void> onError(
@@ -71,6 +85,75 @@ public class AuthenticationPrefilter
         return response.setComplete();
     }
 
+    private Mono<AuthenticatedUser> authenticate(
+            final String token,
+            final String correlationID
+    ) {
+        return Mono.fromCallable(() -> this.jwtVerifier.verify(token))
+                   .onErrorResume(JwtVerifier.UnknownKeyException.class, e -> this.jwksKeyProvider
+                           .refresh()
+                           .then(Mono.fromCallable(() -> this.jwtVerifier.verify(token))))
+                   .onErrorResume(JwtVerifier.UnknownKeyException.class, e -> {
+                       log.debug("{}, validating with auth-service", e.getMessage());
+                       return this.validateRemotely(token, correlationID);
+                   })
+                   .onErrorMap(IllegalArgumentException.class, e -> new JwtException(e.getMessage(), e));
+    }
+
+    private Mono<AuthenticatedUser> validateRemotely(
+            final String token,
+            final String correlationID
+    ) {
+        return this.authServiceClient.post()
+                                     .uri(this.authServiceUrl + "/validate")
+                                     .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token)
+                                     .header(CORRELATION_ID, correlationID)
+                                     .retrieve()
+                                     .toBodilessEntity()
+                                     .flatMap(response -> {
+                                         var headers = response.getHeaders();
+
+                                         var userId = headers.getFirst("userId");
+                                         var username = headers.getFirst("username");
+
+                                         if (username == null || userId == null) {
+                                             return Mono.error(new JwtException("auth-service did not identify the user"));
+                                         }
+
+                                         var claims = this.jwtVerifier.readUnverifiedClaims(token);
+                                         var expiration = claims.getExpiration();
+
+                                         return Mono.just(new AuthenticatedUser(
+                                                 Long.valueOf(userId),
+                                                 username,
+                                                 claims.getId(),
+                                                 expiration == null ? null : expiration.toInstant()
+                                         ));
+                                     })
+                                     .onErrorMap(
+                                             e -> e instanceof WebClientResponseException response
+                                                     && (response.getStatusCode() == HttpStatus.UNAUTHORIZED
+                                                         || response.getStatusCode() == HttpStatus.FORBIDDEN),
+                                             e -> new JwtException(e.getMessage(), e)
+                                     );
+    }
+
+    /**
+     * Hits of the revocation filter may be false positives, auth-service has the final say on them.
+     */
+    private Mono<AuthenticatedUser> confirmNotRevoked(
+            final AuthenticatedUser user,
+            final String token,
+            final String correlationID
+    ) {
+        if (!this.revocationFilterProvider.mightBeRevoked(user.tokenId())) {
+            return Mono.just(user);
+        }
+
+        return this.validateRemotely(token, correlationID)
+                   .doOnError(JwtException.class, e -> this.verifiedTokenCache.reject(token, e.getMessage()));
+    }
+
     @Override
     public Mono<Void> filter(
             final ServerWebExchange exchange,
@@ -83,26 +166,23 @@ public class AuthenticationPrefilter
         var bearerToken = headers.getFirst(HttpHeaders.AUTHORIZATION);
         var correlationID = headers.getFirst(CORRELATION_ID);
 
-        if (bearerToken == null) {
+        if (bearerToken == null || !bearerToken.startsWith(BEARER_PREFIX)) {
             log.error("bearerToken NULL");
             return this.onError(exchange, HttpStatus.UNAUTHORIZED);
         }
-        try {
-            return this.webClientBuilder.build()
-                                        .post()
-                                        .uri(this.authServiceUrl + "/validate")
-                                        .header(HttpHeaders.AUTHORIZATION, bearerToken)
-                                        .header(CORRELATION_ID, correlationID)
-                                        .retrieve()
-                                        .toBodilessEntity()
-                                        .flatMap(this.getResponseEntityMonoFunction(exchange, chain))
-                                        .onErrorResume(WebClientResponseException.class, e -> {
-                                            log.error(e.getMessage());
-                                            return this.onError(exchange, e.getStatusCode());
-                                        });
-        } catch (Exception e) {
-            log.error(e.getMessage());
-            return this.onError(exchange, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+
+        var token = bearerToken.substring(BEARER_PREFIX.length());
+
+        return this.verifiedTokenCache.get(token, t -> this.authenticate(t, correlationID))
+                                      .flatMap(user -> this.confirmNotRevoked(user, token, correlationID))
+                                      .flatMap(user -> this.forward(exchange, chain, user.userId().toString(), user.username()))
+                                      .onErrorResume(JwtException.class, e -> {
+                                          log.error(e.getMessage());
+                                          return this.onError(exchange, HttpStatus.UNAUTHORIZED);
+                                      })
+                                      .onErrorResume(WebClientResponseException.class, e -> {
+                                          log.error(e.getMessage());
+                                          return this.onError(exchange, e.getStatusCode());
+                                      });
     }
 }
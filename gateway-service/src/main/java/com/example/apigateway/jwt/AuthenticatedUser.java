@@ -0,0 +1,11 @@
+package com.example.apigateway.jwt;
+
+import java.time.Instant;
+
+public record AuthenticatedUser(
+        Long userId,
+        String username,
+        String tokenId,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,123 @@
+package com.example.apigateway.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local copy of the JSON Web Key Set auth-service signs tokens with. It is reloaded on a fixed delay and
+ * whenever a token names a key the copy does not have, at most once per minimum refresh interval.
+ */
+@Slf4j
+@Component
+public class JwksKeyProvider {
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final Duration minRefreshInterval;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Instant refreshedAt = Instant.EPOCH;
+    private Mono<Void> inFlightRefresh;
+
+    public JwksKeyProvider(
+            final WebClient.Builder webClientBuilder,
+            @Value("${api.jwt.jwks-uri}")
+            final String jwksUri,
+            @Value("${api.jwt.jwks-min-refresh-interval:30s}")
+            final Duration minRefreshInterval
+    ) {
+        this.webClient = webClientBuilder.build();
+        this.jwksUri = jwksUri;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    public PublicKey key(final String keyId) {
+        return keyId == null ? null : this.keys.get(keyId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${api.jwt.jwks-refresh-interval-ms:600000}",
+               initialDelayString = "${api.jwt.jwks-refresh-interval-ms:600000}")
+    public void reload() {
+        this.fetch().subscribe();
+    }
+
+    /**
+     * Reloads the key set unless it was reloaded within the minimum refresh interval.
+     * Concurrent callers share the same reload, and a failed reload completes empty, keeping the current keys.
+     */
+    public synchronized Mono<Void> refresh() {
+        if (this.inFlightRefresh != null) {
+            return this.inFlightRefresh;
+        }
+        if (this.refreshedAt.plus(this.minRefreshInterval).isAfter(Instant.now())) {
+            return Mono.empty();
+        }
+
+        this.inFlightRefresh = this.fetch().cache();
+        return this.inFlightRefresh;
+    }
+
+    private Mono<Void> fetch() {
+        return this.webClient.get()
+                             .uri(this.jwksUri)
+                             .retrieve()
+                             .bodyToMono(JsonWebKeySet.class)
+                             .doOnNext(this::update)
+                             .onErrorResume(e -> {
+                                 log.warn("Error loading the signing keys from {}: {}", this.jwksUri, e.getMessage());
+                                 return Mono.empty();
+                             })
+                             .doFinally(signal -> this.refreshed())
+                             .then();
+    }
+
+    private synchronized void refreshed() {
+        this.refreshedAt = Instant.now();
+        this.inFlightRefresh = null;
+    }
+
+    private void update(final JsonWebKeySet jsonWebKeySet) {
+        var loaded = new HashMap<String, PublicKey>();
+
+        for (var jsonWebKey : jsonWebKeySet.keys()) {
+            if (!"RSA".equals(jsonWebKey.kty()) || jsonWebKey.kid() == null) {
+                continue;
+            }
+            try {
+                loaded.put(jsonWebKey.kid(), toPublicKey(jsonWebKey));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping unreadable signing key {}: {}", jsonWebKey.kid(), e.getMessage());
+            }
+        }
+
+        this.keys = Map.copyOf(loaded);
+        log.debug("Loaded signing keys {}", loaded.keySet());
+    }
+
+    private static PublicKey toPublicKey(final JsonWebKey jsonWebKey) throws GeneralSecurityException {
+        var decoder = Base64.getUrlDecoder();
+        var modulus = new BigInteger(1, decoder.decode(jsonWebKey.n()));
+        var exponent = new BigInteger(1, decoder.decode(jsonWebKey.e()));
+
+        return KeyFactory.getInstance("RSA")
+                         .generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.apigateway.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.time.Duration;
+
+/**
+ * Verifies access tokens inside the gateway: signature, expiry, issuer and audience.
+ * Keys come from auth-service's JSON Web Key Set through {@link JwksKeyProvider}; tokens signed with a key
+ * the gateway does not have are reported with {@link UnknownKeyException}, so the caller can refresh the keys
+ * or ask auth-service about the token.
+ */
+@Component
+public class JwtVerifier {
+
+    public static class UnknownKeyException
+            extends JwtException {
+
+        public UnknownKeyException(final String keyId) {
+            super("Unknown signing key " + keyId);
+        }
+    }
+
+    private final JwksKeyProvider jwksKeyProvider;
+    private final JwtParser parser;
+    private final JwtParser unverifiedParser;
+
+    public JwtVerifier(
+            final JwksKeyProvider jwksKeyProvider,
+            @Value("${api.jwt.issuer:auth-service}")
+            final String issuer,
+            @Value("${api.jwt.audience:e-commerce-store}")
+            final String audience,
+            @Value("${api.jwt.clock-skew:30s}")
+            final Duration clockSkew
+    ) {
+        this.jwksKeyProvider = jwksKeyProvider;
+        this.parser = Jwts.parserBuilder()
+                          .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                              @Override
+                              public Key resolveSigningKey(
+                                      final JwsHeader header,
+                                      final Claims claims
+                              ) {
+                                  return JwtVerifier.this.resolveKey(header.getKeyId());
+                              }
+                          })
+                          .requireIssuer(issuer)
+                          .requireAudience(audience)
+                          .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                          .build();
+        this.unverifiedParser = Jwts.parserBuilder()
+                                    .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                                    .build();
+    }
+
+    /**
+     * Verifies the token and reads the user it was issued to.
+     *
+     * @param token The compact JWS, without the {@code Bearer} prefix.
+     * @return The user the token identifies.
+     * @throws UnknownKeyException If the token is signed with a key the gateway does not know.
+     * @throws JwtException        If the token is invalid, expired or issued for someone else.
+     */
+    public AuthenticatedUser verify(final String token) {
+        var claims = this.parser.parseClaimsJws(token)
+                                .getBody();
+
+        var userId = claims.get("userId", Long.class);
+        var username = claims.get("username", String.class);
+
+        if (claims.getExpiration() == null || userId == null || username == null) {
+            throw new MalformedJwtException("Token is missing the expiration or the user");
+        }
+
+        return new AuthenticatedUser(userId, username, claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    /**
+     * Reads the claims of a token without checking its signature, for tokens auth-service already vouched for.
+     *
+     * @param token The compact JWS, without the {@code Bearer} prefix.
+     * @return The claims of the token.
+     * @throws JwtException If the token cannot be read or is already expired.
+     */
+    public Claims readUnverifiedClaims(final String token) {
+        var unsignedToken = token.substring(0, token.lastIndexOf('.') + 1);
+
+        return this.unverifiedParser.parseClaimsJwt(unsignedToken)
+                                    .getBody();
+    }
+
+    private Key resolveKey(final String keyId) {
+        var key = this.jwksKeyProvider.key(keyId);
+
+        if (key == null) {
+            throw new UnknownKeyException(keyId);
+        }
+        return key;
+    }
+}
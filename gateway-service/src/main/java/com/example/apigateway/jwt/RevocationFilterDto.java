@@ -0,0 +1,7 @@
+package com.example.apigateway.jwt;
+
+public record RevocationFilterDto(
+        int hashFunctions,
+        long[] bits
+) {
+}
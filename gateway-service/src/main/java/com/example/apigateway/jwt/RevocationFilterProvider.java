@@ -0,0 +1,50 @@
+package com.example.apigateway.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Local copy of auth-service's Bloom filter of revoked access-token ids, reloaded on a fixed delay.
+ * A miss means the token is not revoked; a hit may be a false positive and has to be confirmed with auth-service.
+ */
+@Slf4j
+@Component
+public class RevocationFilterProvider {
+
+    private final WebClient webClient;
+    private final String revocationsUri;
+
+    private volatile BloomFilter revoked = new BloomFilter(new long[1], 1);
+
+    public RevocationFilterProvider(
+            final WebClient.Builder webClientBuilder,
+            @Value("${api.jwt.revocations-uri}")
+            final String revocationsUri
+    ) {
+        this.webClient = webClientBuilder.build();
+        this.revocationsUri = revocationsUri;
+    }
+
+    public boolean mightBeRevoked(final String tokenId) {
+        return tokenId != null && this.revoked.mightContain(tokenId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${api.jwt.revocations-refresh-interval-ms:5000}",
+               initialDelayString = "${api.jwt.revocations-refresh-interval-ms:5000}")
+    public void reload() {
+        this.webClient.get()
+                      .uri(this.revocationsUri)
+                      .retrieve()
+                      .bodyToMono(RevocationFilterDto.class)
+                      .subscribe(
+                              filter -> this.revoked = new BloomFilter(filter.bits(), filter.hashFunctions()),
+                              e -> log.warn("Error loading the revoked tokens from {}: {}", this.revocationsUri, e.getMessage())
+                      );
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.apigateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Remembers which bearer tokens were already authenticated, keyed by their SHA-256 hash.
+ * Entries live until the token's own expiration or the configured maximum TTL, whichever comes first,
+ * concurrent lookups of the same unknown token share one authentication,
+ * and tokens that were rejected are refused for a short while without authenticating them again.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String AUTHENTICATIONS_METRIC = "gateway.auth.authentications";
+
+    private final AsyncCache<String, AuthenticatedUser> verified;
+    private final Cache<String, String> rejected;
+    private final Counter cachedCounter;
+    private final Counter rejectedCounter;
+    private final Counter authenticatedCounter;
+
+    public VerifiedTokenCache(
+            final MeterRegistry meterRegistry,
+            @Value("${api.jwt.token-cache.maximum-size:100000}")
+            final long maximumSize,
+            @Value("${api.jwt.token-cache.max-ttl:10m}")
+            final Duration maxTtl,
+            @Value("${api.jwt.token-cache.rejected.maximum-size:10000}")
+            final long rejectedMaximumSize,
+            @Value("${api.jwt.token-cache.rejected.ttl:30s}")
+            final Duration rejectedTtl
+    ) {
+        this.verified = Caffeine.newBuilder()
+                                .maximumSize(maximumSize)
+                                .expireAfter(new TokenExpiry(maxTtl))
+                                .recordStats()
+                                .buildAsync();
+        this.rejected = Caffeine.newBuilder()
+                                .maximumSize(rejectedMaximumSize)
+                                .expireAfterWrite(rejectedTtl)
+                                .recordStats()
+                                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, this.verified, "verified-tokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.rejected, "rejected-tokens");
+
+        this.cachedCounter = meterRegistry.counter(AUTHENTICATIONS_METRIC, "source", "cache");
+        this.rejectedCounter = meterRegistry.counter(AUTHENTICATIONS_METRIC, "source", "rejected-cache");
+        this.authenticatedCounter = meterRegistry.counter(AUTHENTICATIONS_METRIC, "source", "authenticated");
+    }
+
+    /**
+     * Returns the user of an already authenticated token, or authenticates it.
+     *
+     * @param token        The compact JWS, without the {@code Bearer} prefix.
+     * @param authenticate Authenticates the token on a miss. A {@link JwtException} marks the token as rejected.
+     * @return The user the token identifies.
+     */
+    public Mono<AuthenticatedUser> get(
+            final String token,
+            final Function<String, Mono<AuthenticatedUser>> authenticate
+    ) {
+        var key = hash(token);
+
+        var rejection = this.rejected.getIfPresent(key);
+        if (rejection != null) {
+            this.rejectedCounter.increment();
+            return Mono.error(new JwtException(rejection));
+        }
+
+        var loaded = new boolean[1];
+        var user = this.verified.get(key, (ignored, executor) -> {
+            loaded[0] = true;
+            // Rejections complete the load empty, so Caffeine drops the entry without logging a failed load
+            return authenticate.apply(token)
+                               .onErrorResume(JwtException.class, e -> {
+                                   this.rejected.put(key, e.getMessage());
+                                   return Mono.empty();
+                               })
+                               .toFuture();
+        });
+
+        (loaded[0] ? this.authenticatedCounter : this.cachedCounter).increment();
+
+        return Mono.fromFuture(user, true)
+                   .switchIfEmpty(Mono.defer(() -> Mono.error(new JwtException(
+                           Objects.requireNonNullElse(this.rejected.getIfPresent(key), "Token was rejected")
+                   ))));
+    }
+
+    /**
+     * Forgets a token that was authenticated before and refuses it from now on, e.g. after it was revoked.
+     */
+    public void reject(
+            final String token,
+            final String reason
+    ) {
+        var key = hash(token);
+
+        this.rejected.put(key, reason);
+        this.verified.synchronous().invalidate(key);
+    }
+
+    private static String hash(final String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                                      .digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record TokenExpiry(
+            Duration maxTtl
+    ) implements Expiry<String, AuthenticatedUser> {
+
+        @Override
+        public long expireAfterCreate(
+                final String key,
+                final AuthenticatedUser user,
+                final long currentTime
+        ) {
+            var ttl = this.maxTtl;
+
+            if (user.expiresAt() != null) {
+                var untilExpiration = Duration.between(Instant.now(), user.expiresAt());
+                if (untilExpiration.compareTo(ttl) < 0) {
+                    ttl = untilExpiration.isNegative() ? Duration.ZERO : untilExpiration;
+                }
+            }
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                final String key,
+                final AuthenticatedUser user,
+                final long currentTime,
+                final long currentDuration
+        ) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(
+                final String key,
+                final AuthenticatedUser user,
+                final long currentTime,
+                final long currentDuration
+        ) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.apigateway.jwt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * auth-service has its own copy of this class and the same test, both must produce {@link #EXPECTED_BITS}.
+ */
+class BloomFilterTest {
+
+    private static final String FIRST_TOKEN_ID = "d3b07384-d9a0-4f3c-8a3b-1f6e2c7a9b10";
+    private static final String SECOND_TOKEN_ID = "jti-2";
+
+    private static final int EXPECTED_HASH_FUNCTIONS = 7;
+    private static final long[] EXPECTED_BITS = {
+            0x0L, 0x2002000004000000L, 0x8000000000000L, 0x20000000000000L, 0x0L,
+            0x40000L, 0x100100000L, 0x4000400008L, 0x100000010200L, 0x0L
+    };
+
+    @Test
+    void put_WhenGivenFixedValues_ShouldSetTheBitsBothServicesAgreeOn() {
+        //Arrange
+        var bloomFilter = BloomFilter.create(64, 0.01);
+
+        //Act
+        bloomFilter.put(FIRST_TOKEN_ID);
+        bloomFilter.put(SECOND_TOKEN_ID);
+
+        //Assert
+        Assertions.assertEquals(EXPECTED_HASH_FUNCTIONS, bloomFilter.hashFunctions());
+        Assertions.assertArrayEquals(EXPECTED_BITS, bloomFilter.bits());
+    }
+
+    @Test
+    void mightContain_WhenReadFromTransferredBits_ShouldFindOnlyThePutValues() {
+        //Arrange
+        var bloomFilter = new BloomFilter(EXPECTED_BITS.clone(), EXPECTED_HASH_FUNCTIONS);
+
+        //Act and Assert
+        Assertions.assertTrue(bloomFilter.mightContain(FIRST_TOKEN_ID));
+        Assertions.assertTrue(bloomFilter.mightContain(SECOND_TOKEN_ID));
+        Assertions.assertFalse(bloomFilter.mightContain("jti-3"));
+    }
+}
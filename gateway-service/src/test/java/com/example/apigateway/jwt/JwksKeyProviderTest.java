@@ -0,0 +1,130 @@
+package com.example.apigateway.jwt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class JwksKeyProviderTest {
+
+    private static final String JWKS_URI = "http://auth-service/api/v1/auth/jwks";
+
+    private static RSAPublicKey publicKey;
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final Deque<ClientResponse> responses = new ArrayDeque<>();
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+    }
+
+    @Test
+    void refresh_WhenKeySetIsLoaded_ShouldKeepOnlyTheRsaKeys() {
+        //Arrange
+        var jwksKeyProvider = this.provider(Duration.ofSeconds(30));
+        this.responses.add(ok(jwks(rsaKey("key-1"), """
+                {"kty":"EC","kid":"key-2","crv":"P-256","x":"AA","y":"AA"}""")));
+
+        //Act
+        jwksKeyProvider.refresh().block();
+
+        //Assert
+        Assertions.assertEquals(publicKey, jwksKeyProvider.key("key-1"));
+        Assertions.assertNull(jwksKeyProvider.key("key-2"));
+        Assertions.assertNull(jwksKeyProvider.key(null));
+    }
+
+    @Test
+    void refresh_WhenCalledWithinTheMinimumInterval_ShouldNotLoadTheKeySetAgain() {
+        //Arrange
+        var jwksKeyProvider = this.provider(Duration.ofSeconds(30));
+        this.responses.add(ok(jwks(rsaKey("key-1"))));
+        jwksKeyProvider.refresh().block();
+
+        //Act
+        jwksKeyProvider.refresh().block();
+
+        //Assert
+        Assertions.assertEquals(1, this.fetches.get());
+    }
+
+    @Test
+    void refresh_WhenLoadFails_ShouldKeepTheCurrentKeys() {
+        //Arrange
+        var jwksKeyProvider = this.provider(Duration.ZERO);
+        this.responses.add(ok(jwks(rsaKey("key-1"))));
+        this.responses.add(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+        jwksKeyProvider.refresh().block();
+
+        //Act
+        jwksKeyProvider.refresh().block();
+
+        //Assert
+        Assertions.assertEquals(2, this.fetches.get());
+        Assertions.assertEquals(publicKey, jwksKeyProvider.key("key-1"));
+    }
+
+    @Test
+    void refresh_WhenKeyWasRetired_ShouldForgetIt() {
+        //Arrange
+        var jwksKeyProvider = this.provider(Duration.ZERO);
+        this.responses.add(ok(jwks(rsaKey("key-1"))));
+        this.responses.add(ok(jwks(rsaKey("key-2"))));
+        jwksKeyProvider.refresh().block();
+
+        //Act
+        jwksKeyProvider.refresh().block();
+
+        //Assert
+        Assertions.assertNull(jwksKeyProvider.key("key-1"));
+        Assertions.assertEquals(publicKey, jwksKeyProvider.key("key-2"));
+    }
+
+    private JwksKeyProvider provider(final Duration minRefreshInterval) {
+        var webClientBuilder = WebClient.builder()
+                                        .exchangeFunction(request -> {
+                                            this.fetches.incrementAndGet();
+                                            return Mono.just(this.responses.removeFirst());
+                                        });
+
+        return new JwksKeyProvider(webClientBuilder, JWKS_URI, minRefreshInterval);
+    }
+
+    private static ClientResponse ok(final String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                             .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                             .body(body)
+                             .build();
+    }
+
+    private static String jwks(final String... keys) {
+        return "{\"keys\":[" + String.join(",", keys) + "]}";
+    }
+
+    private static String rsaKey(final String keyId) {
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+
+        return """
+                {"kty":"RSA","kid":"%s","use":"sig","alg":"RS256","n":"%s","e":"%s"}""".formatted(
+                keyId,
+                encoder.encodeToString(publicKey.getModulus().toByteArray()),
+                encoder.encodeToString(publicKey.getPublicExponent().toByteArray())
+        );
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.apigateway.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class JwtVerifierTest {
+
+    private static final String KEY_ID = "key-1";
+    private static final String ISSUER = "auth-service";
+    private static final String AUDIENCE = "e-commerce-store";
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    @Mock
+    JwksKeyProvider jwksKeyProvider;
+    JwtVerifier jwtVerifier;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        otherKeyPair = generator.generateKeyPair();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        this.jwtVerifier = new JwtVerifier(this.jwksKeyProvider, ISSUER, AUDIENCE, Duration.ofSeconds(30));
+
+        lenient().when(this.jwksKeyProvider.key(KEY_ID))
+                 .thenReturn(keyPair.getPublic());
+    }
+
+    @Test
+    void verify_WhenTokenIsValid_ShouldReturnTheUser() {
+        //Arrange
+        var expiresAt = Instant.now().plusSeconds(600);
+        var token = token().setId("jti-1")
+                           .setExpiration(Date.from(expiresAt))
+                           .compact();
+
+        //Act
+        var user = this.jwtVerifier.verify(token);
+
+        //Assert
+        Assertions.assertEquals(1L, user.userId());
+        Assertions.assertEquals("user", user.username());
+        Assertions.assertEquals("jti-1", user.tokenId());
+        Assertions.assertEquals(expiresAt.getEpochSecond(), user.expiresAt().getEpochSecond());
+    }
+
+    @Test
+    void verify_WhenTokenExpiredBeyondTheClockSkew_ShouldThrowExpiredJwtException() {
+        //Arrange
+        var token = token().setExpiration(Date.from(Instant.now().minusSeconds(60)))
+                           .compact();
+
+        //Act and Assert
+        Assertions.assertThrows(ExpiredJwtException.class, () -> this.jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_WhenTokenExpiredWithinTheClockSkew_ShouldReturnTheUser() {
+        //Arrange
+        var token = token().setExpiration(Date.from(Instant.now().minusSeconds(5)))
+                           .compact();
+
+        //Act
+        var user = this.jwtVerifier.verify(token);
+
+        //Assert
+        Assertions.assertEquals(1L, user.userId());
+    }
+
+    @Test
+    void verify_WhenIssuerDiffers_ShouldThrowIncorrectClaimException() {
+        //Arrange
+        var token = token().setIssuer("someone-else")
+                           .compact();
+
+        //Act and Assert
+        Assertions.assertThrows(IncorrectClaimException.class, () -> this.jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_WhenAudienceDiffers_ShouldThrowIncorrectClaimException() {
+        //Arrange
+        var token = token().setAudience("other-store")
+                           .compact();
+
+        //Act and Assert
+        Assertions.assertThrows(IncorrectClaimException.class, () -> this.jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_WhenKeyIdIsUnknown_ShouldThrowUnknownKeyException() {
+        //Arrange
+        var token = token().setHeaderParam("kid", "key-2")
+                           .compact();
+
+        //Act and Assert
+        var exception = Assertions.assertThrows(JwtVerifier.UnknownKeyException.class, () -> this.jwtVerifier.verify(token));
+        Assertions.assertTrue(exception.getMessage().contains("key-2"));
+    }
+
+    @Test
+    void verify_WhenSignedWithAnotherKey_ShouldThrowSignatureException() {
+        //Arrange
+        var token = token().signWith(otherKeyPair.getPrivate(), SignatureAlgorithm.RS256)
+                           .compact();
+
+        //Act and Assert
+        Assertions.assertThrows(SignatureException.class, () -> this.jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_WhenUserIsMissing_ShouldThrowMalformedJwtException() {
+        //Arrange
+        var token = token().claim("userId", null)
+                           .compact();
+
+        //Act and Assert
+        Assertions.assertThrows(MalformedJwtException.class, () -> this.jwtVerifier.verify(token));
+    }
+
+    /**
+     * A valid token, the tests change the part they are about
+     */
+    private static JwtBuilder token() {
+        return Jwts.builder()
+                   .setHeaderParam("kid", KEY_ID)
+                   .setIssuer(ISSUER)
+                   .setAudience(AUDIENCE)
+                   .claim("userId", 1L)
+                   .claim("username", "user")
+                   .setExpiration(Date.from(Instant.now().plusSeconds(600)))
+                   .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256);
+    }
+}
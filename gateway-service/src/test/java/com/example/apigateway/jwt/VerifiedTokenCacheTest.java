@@ -0,0 +1,135 @@
+package com.example.apigateway.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private final AtomicInteger authentications = new AtomicInteger();
+
+    @Test
+    void get_WhenTokenWasAuthenticated_ShouldAnswerFromTheCache() {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMinutes(10), Duration.ofSeconds(30));
+        var authenticate = this.authenticateAs(user(Instant.now().plusSeconds(600)));
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+
+        //Act
+        var user = verifiedTokenCache.get(TOKEN, authenticate).block();
+
+        //Assert
+        Assertions.assertEquals("user", user.username());
+        Assertions.assertEquals(1, this.authentications.get());
+    }
+
+    @Test
+    void get_WhenTokenWasRejected_ShouldRefuseItWithoutAuthenticatingAgain() {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMinutes(10), Duration.ofSeconds(30));
+        var authenticate = this.rejectWith("Token expired");
+        Assertions.assertThrows(JwtException.class, () -> verifiedTokenCache.get(TOKEN, authenticate).block());
+
+        //Act
+        var exception = Assertions.assertThrows(JwtException.class, () -> verifiedTokenCache.get(TOKEN, authenticate).block());
+
+        //Assert
+        Assertions.assertEquals("Token expired", exception.getMessage());
+        Assertions.assertEquals(1, this.authentications.get());
+    }
+
+    @Test
+    void get_WhenRejectionExpired_ShouldAuthenticateAgain() throws Exception {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMinutes(10), Duration.ofMillis(50));
+        Assertions.assertThrows(JwtException.class, () -> verifiedTokenCache.get(TOKEN, this.rejectWith("Token expired")).block());
+        Thread.sleep(150);
+
+        //Act
+        var user = verifiedTokenCache.get(TOKEN, this.authenticateAs(user(Instant.now().plusSeconds(600)))).block();
+
+        //Assert
+        Assertions.assertEquals("user", user.username());
+        Assertions.assertEquals(2, this.authentications.get());
+    }
+
+    @Test
+    void get_WhenTokenExpiredSinceItWasCached_ShouldAuthenticateAgain() throws Exception {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMinutes(10), Duration.ofSeconds(30));
+        var authenticate = this.authenticateAs(user(Instant.now().plusMillis(100)));
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+        Thread.sleep(200);
+
+        //Act
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+
+        //Assert
+        Assertions.assertEquals(2, this.authentications.get());
+    }
+
+    @Test
+    void get_WhenMaxTtlPassed_ShouldAuthenticateAgain() throws Exception {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMillis(50), Duration.ofSeconds(30));
+        var authenticate = this.authenticateAs(user(Instant.now().plusSeconds(600)));
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+        Thread.sleep(150);
+
+        //Act
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+
+        //Assert
+        Assertions.assertEquals(2, this.authentications.get());
+    }
+
+    @Test
+    void reject_WhenTokenWasAuthenticated_ShouldRefuseItFromNowOn() {
+        //Arrange
+        var verifiedTokenCache = cache(Duration.ofMinutes(10), Duration.ofSeconds(30));
+        var authenticate = this.authenticateAs(user(Instant.now().plusSeconds(600)));
+        verifiedTokenCache.get(TOKEN, authenticate).block();
+
+        //Act
+        verifiedTokenCache.reject(TOKEN, "Token was revoked");
+
+        //Assert
+        var exception = Assertions.assertThrows(JwtException.class, () -> verifiedTokenCache.get(TOKEN, authenticate).block());
+        Assertions.assertEquals("Token was revoked", exception.getMessage());
+        Assertions.assertEquals(1, this.authentications.get());
+    }
+
+    private Function<String, Mono<AuthenticatedUser>> authenticateAs(final AuthenticatedUser user) {
+        return token -> Mono.fromSupplier(() -> {
+            this.authentications.incrementAndGet();
+            return user;
+        });
+    }
+
+    private Function<String, Mono<AuthenticatedUser>> rejectWith(final String reason) {
+        return token -> Mono.defer(() -> {
+            this.authentications.incrementAndGet();
+            return Mono.error(new JwtException(reason));
+        });
+    }
+
+    private static VerifiedTokenCache cache(
+            final Duration maxTtl,
+            final Duration rejectedTtl
+    ) {
+        return new VerifiedTokenCache(new SimpleMeterRegistry(), 100, maxTtl, 100, rejectedTtl);
+    }
+
+    private static AuthenticatedUser user(final Instant expiresAt) {
+        return new AuthenticatedUser(1L, "user", "jti-1", expiresAt);
+    }
+}
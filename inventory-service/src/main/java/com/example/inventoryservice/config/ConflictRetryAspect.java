@@ -0,0 +1,75 @@
+package com.example.inventoryservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods that lost a row lock, as a deadlock victim or on a lock timeout,
+ * with exponential backoff and full jitter.
+ * Runs before the transaction advice so every attempt gets a fresh transaction.
+ * Exports {@code inventory.write.conflicts} and {@code inventory.write.retries} by operation.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConflictRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryAspect(
+            final MeterRegistry meterRegistry,
+            @Value("${api.conflict-retry.max-attempts:5}")
+            final int maxAttempts,
+            @Value("${api.conflict-retry.initial-backoff:10ms}")
+            final Duration initialBackoff,
+            @Value("${api.conflict-retry.max-backoff:200ms}")
+            final Duration maxBackoff
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.initialBackoffMillis = Math.max(initialBackoff.toMillis(), 1);
+        this.maxBackoffMillis = Math.max(maxBackoff.toMillis(), this.initialBackoffMillis);
+    }
+
+    @Around("@annotation(RetryOnConflict)")
+    public Object retryOnConflict(final ProceedingJoinPoint joinPoint) throws Throwable {
+        var operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                        + "." + joinPoint.getSignature().getName();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (PessimisticLockingFailureException e) {
+                this.meterRegistry.counter("inventory.write.conflicts", "operation", operation).increment();
+
+                if (attempt >= this.maxAttempts) {
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+
+                this.meterRegistry.counter("inventory.write.retries", "operation", operation).increment();
+                Thread.sleep(this.backoffMillis(attempt));
+            }
+        }
+    }
+
+    private long backoffMillis(final int attempt) {
+        var ceiling = Math.min(this.maxBackoffMillis, this.initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
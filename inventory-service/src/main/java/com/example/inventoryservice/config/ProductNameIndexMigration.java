@@ -0,0 +1,95 @@
+package com.example.inventoryservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Makes product names unique with the {@code product_name_key} index, which the bulk import relies on to skip
+ * existing products with {@code ON CONFLICT (name)}.
+ * <p>
+ * The index is built concurrently, so writes to the catalog go on while an existing table is indexed.
+ * If the table still holds duplicate names the build fails: it is logged, the half-built index is dropped
+ * and the next start tries again.
+ * <p>
+ * Runs while the context starts, once Hibernate has updated the schema and before the web server takes traffic.
+ * Does nothing once the index exists.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductNameIndexMigration
+        implements InitializingBean {
+
+    private static final long MIGRATION_LOCK_ID = 7_002L;
+    private static final String INDEX_NAME = "product_name_key";
+
+    private static final String INDEX_VALID_SQL =
+            "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+            + "WHERE c.relname = '" + INDEX_NAME + "' AND c.relnamespace = current_schema()::regnamespace";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductNameIndexMigration(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // CREATE INDEX CONCURRENTLY can't run in a transaction, so the lock is held by the session instead
+        this.jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            execute(connection, "SELECT pg_advisory_lock(" + MIGRATION_LOCK_ID + ")");
+            try {
+                this.createIndex(connection);
+            } finally {
+                execute(connection, "SELECT pg_advisory_unlock(" + MIGRATION_LOCK_ID + ")");
+            }
+            return null;
+        });
+    }
+
+    private void createIndex(final Connection connection) throws SQLException {
+        var valid = indexValid(connection);
+
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+        }
+
+        try {
+            execute(connection, "CREATE UNIQUE INDEX CONCURRENTLY " + INDEX_NAME + " ON product (name)");
+            log.info("Created the unique {} index", INDEX_NAME);
+        } catch (SQLException e) {
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+            log.error("Could not make product names unique, bulk imports fail until the duplicates are renamed: {}",
+                      e.getMessage());
+        }
+    }
+
+    /**
+     * @return Whether the index is valid, or null if it does not exist.
+     */
+    private static Boolean indexValid(final Connection connection) throws SQLException {
+        try (var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(INDEX_VALID_SQL)) {
+            return resultSet.next() ? resultSet.getBoolean(1) : null;
+        }
+    }
+
+    private static void execute(
+            final Connection connection,
+            final String sql
+    ) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
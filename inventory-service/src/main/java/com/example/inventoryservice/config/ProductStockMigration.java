@@ -0,0 +1,135 @@
+package com.example.inventoryservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the stock of databases created before {@code product_stock} existed out of the
+ * legacy {@code product.quantity} column, in two releases so a rolling deploy or a rollback
+ * never meets a schema it can't use:
+ * <ul>
+ *     <li>Expand: copies the stock to {@code product_stock} and keeps the column, mirrored both ways by triggers,
+ *     so replicas still on the column read and write the same stock.</li>
+ *     <li>Contract, with {@code api.product-stock.drop-legacy-column} set once no replica uses the column anymore:
+ *     drops the triggers and the column.</li>
+ * </ul>
+ * Runs while the context starts, once Hibernate has updated the schema and before the web server takes traffic.
+ * Does nothing once the column is gone.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductStockMigration
+        implements InitializingBean {
+
+    private static final long MIGRATION_LOCK_ID = 7_001L;
+
+    private static final String LEGACY_COLUMN_SQL =
+            "SELECT COUNT(*) FROM information_schema.columns "
+            + "WHERE table_schema = current_schema() AND table_name = 'product' AND column_name = 'quantity'";
+
+    // The depth check stops each trigger from firing the other one back
+    private static final String PRODUCT_TO_STOCK_FUNCTION_SQL = """
+            CREATE OR REPLACE FUNCTION product_quantity_to_stock() RETURNS trigger AS $$
+            BEGIN
+                IF pg_trigger_depth() = 1 AND NEW.quantity IS NOT NULL THEN
+                    INSERT INTO product_stock (product_id, quantity) VALUES (NEW.id, NEW.quantity)
+                    ON CONFLICT (product_id) DO UPDATE SET quantity = EXCLUDED.quantity;
+                END IF;
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """;
+
+    private static final String STOCK_TO_PRODUCT_FUNCTION_SQL = """
+            CREATE OR REPLACE FUNCTION product_stock_to_quantity() RETURNS trigger AS $$
+            BEGIN
+                IF pg_trigger_depth() = 1 THEN
+                    UPDATE product SET quantity = NEW.quantity
+                    WHERE id = NEW.product_id AND quantity IS DISTINCT FROM NEW.quantity;
+                END IF;
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean dropLegacyColumn;
+
+    public ProductStockMigration(
+            final JdbcTemplate jdbcTemplate,
+            final TransactionTemplate transactionTemplate,
+            @Value("${api.product-stock.drop-legacy-column:false}")
+            final boolean dropLegacyColumn
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dropLegacyColumn = dropLegacyColumn;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!this.hasLegacyColumn()) {
+            return;
+        }
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            // Other replicas wait here, without blocking the table, and find nothing left to do
+            this.jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_ID + ")");
+
+            if (!this.hasLegacyColumn()) {
+                return;
+            }
+
+            if (this.dropLegacyColumn) {
+                this.contract();
+            } else {
+                this.expand();
+            }
+        });
+    }
+
+    private void expand() {
+        // Products inserted through product_stock leave the column empty
+        this.jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN quantity DROP NOT NULL");
+
+        this.jdbcTemplate.execute(PRODUCT_TO_STOCK_FUNCTION_SQL);
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS product_quantity_to_stock ON product");
+        this.jdbcTemplate.execute("CREATE TRIGGER product_quantity_to_stock AFTER INSERT OR UPDATE OF quantity ON product "
+                                  + "FOR EACH ROW EXECUTE FUNCTION product_quantity_to_stock()");
+
+        this.jdbcTemplate.execute(STOCK_TO_PRODUCT_FUNCTION_SQL);
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS product_stock_to_quantity ON product_stock");
+        this.jdbcTemplate.execute("CREATE TRIGGER product_stock_to_quantity AFTER INSERT OR UPDATE OF quantity ON product_stock "
+                                  + "FOR EACH ROW EXECUTE FUNCTION product_stock_to_quantity()");
+
+        // After the triggers, so writes made meanwhile are not missed
+        var moved = this.jdbcTemplate.update(
+                "INSERT INTO product_stock (product_id, quantity) "
+                + "SELECT id, quantity FROM product WHERE quantity IS NOT NULL ON CONFLICT (product_id) DO NOTHING"
+        );
+
+        log.info("Copied the stock of {} products to product_stock, product.quantity is kept in sync until it is dropped", moved);
+    }
+
+    private void contract() {
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS product_quantity_to_stock ON product");
+        this.jdbcTemplate.execute("DROP TRIGGER IF EXISTS product_stock_to_quantity ON product_stock");
+        this.jdbcTemplate.execute("DROP FUNCTION IF EXISTS product_quantity_to_stock()");
+        this.jdbcTemplate.execute("DROP FUNCTION IF EXISTS product_stock_to_quantity()");
+        this.jdbcTemplate.execute("ALTER TABLE product DROP COLUMN quantity");
+
+        log.info("Dropped the legacy product.quantity column");
+    }
+
+    private boolean hasLegacyColumn() {
+        var count = this.jdbcTemplate.queryForObject(LEGACY_COLUMN_SQL, Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -3,8 +3,17 @@ package com.example.inventoryservice.controllers;
 import com.example.inventoryservice.config.ContextHolder;
 import com.example.inventoryservice.dtos.ProductCreateDto;
 import com.example.inventoryservice.dtos.ProductDto;
+import com.example.inventoryservice.dtos.ProductImportResultDto;
+import com.example.inventoryservice.dtos.ProductLookupDto;
+import com.example.inventoryservice.dtos.ProductPageDto;
+import com.example.inventoryservice.dtos.ProductSearchResultDto;
 import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import com.example.inventoryservice.dtos.ReservationDto;
+import com.example.inventoryservice.services.IProductImportService;
 import com.example.inventoryservice.services.IProductService;
+import com.example.inventoryservice.services.IReservationService;
+import com.example.inventoryservice.services.StockDecreaseBatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,6 +21,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,8 +31,14 @@ import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @Slf4j
@@ -31,8 +47,15 @@ import java.util.List;
 @Tag(name = "Product")
 public class ProductController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String STOCK_SAGA_ID = "Stock-Saga-Id";
+
     private final IProductService productService;
+    private final IReservationService reservationService;
+    private final IProductImportService productImportService;
+    private final StockDecreaseBatcher stockDecreaseBatcher;
     private final ContextHolder contextHolder;
+    private final ObjectMapper objectMapper;
     
     /**
      * Helper method to log incoming requests
@@ -108,6 +131,67 @@ public class ProductController {
                              .body(productDto);
     }
 
+    /**
+     * Import products from a CSV file with a name,price,quantity[,description] header
+     *
+     * @param request The HttpServletRequest.
+     * @return How many products were imported and the rejected rows.
+     */
+    @Operation(
+            summary = "Import products from CSV",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ProductImportResultDto.class))
+                                 }),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PostMapping(value = "/import",
+                 consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ProductImportResultDto> importCsv(HttpServletRequest request) throws IOException {
+
+        this.logRequest(request, null);
+
+        var result = this.productImportService.importCsv(this.bodyReader(request));
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Import products from newline delimited JSON
+     *
+     * @param request The HttpServletRequest.
+     * @return How many products were imported and the rejected rows.
+     */
+    @Operation(
+            summary = "Import products from NDJSON",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ProductImportResultDto.class))
+                                 })
+            }
+    )
+    @PostMapping(value = "/import",
+                 consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ProductImportResultDto> importNdjson(HttpServletRequest request) throws IOException {
+
+        this.logRequest(request, null);
+
+        var result = this.productImportService.importNdjson(this.bodyReader(request));
+
+        return ResponseEntity.ok(result);
+    }
+
+    private BufferedReader bodyReader(HttpServletRequest request) throws IOException {
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+    }
+
     /**
      * Get the product by id
      *
@@ -176,6 +260,119 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get a page of products ordered by id, starting after the given cursor
+     *
+     * @param request The HttpServletRequest.
+     * @param after   The id of the last product of the previous page.
+     * @param limit   The maximum number of products to return.
+     * @return The page of products and the cursor of the next page.
+     */
+    @Operation(
+            summary = "Get a page of products (Public)",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ProductPageDto.class))
+                                 })
+            }
+    )
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageDto> getPage(
+            HttpServletRequest request,
+            @RequestParam(required = false)
+            Long after,
+            @RequestParam(defaultValue = "50")
+            int limit
+    ) {
+
+        this.logRequest(request, null);
+
+        var productPage = this.productService.getPage(after, limit);
+
+        return ResponseEntity.ok(productPage);
+    }
+
+    /**
+     * Search products by name and description
+     *
+     * @param request The HttpServletRequest.
+     * @param q       The words to search for.
+     * @param offset  How many hits to skip.
+     * @param limit   The maximum number of hits to return.
+     * @return A page of hits, best match first.
+     */
+    @Operation(
+            summary = "Search products by name and description (Public)",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ProductSearchResultDto.class))
+                                 })
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResultDto> search(
+            HttpServletRequest request,
+            @RequestParam
+            String q,
+            @RequestParam(defaultValue = "0")
+            int offset,
+            @RequestParam(defaultValue = "20")
+            int limit
+    ) {
+
+        this.logRequest(request, null);
+
+        var result = this.productService.search(q, offset, limit);
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Stream all products as newline delimited JSON
+     *
+     * @param response The HttpServletResponse.
+     */
+    @Operation(
+            summary = "Stream all products as NDJSON (Public)",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                                  schema = @Schema(implementation = ProductDto.class))
+                                 })
+            }
+    )
+    @GetMapping(value = "/stream",
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAll(HttpServletResponse response) throws IOException {
+
+        log.info("Streaming all products");
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        var outputStream = response.getOutputStream();
+        var writer = this.objectMapper.writerFor(ProductDto.class);
+
+        try {
+            this.productService.streamAll(productDto -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(productDto));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        outputStream.flush();
+    }
+
     /**
      * Get products by IDs
      *
@@ -214,6 +411,41 @@ public class ProductController {
         }
     }
 
+    /**
+     * Look up many products at once, keyed by id
+     *
+     * @param request The HttpServletRequest.
+     * @param ids     The product IDs.
+     * @return The products found, by id.
+     */
+    @Operation(
+            summary = "Look up products by IDs",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(type = "object",
+                                                                   additionalPropertiesSchema = ProductLookupDto.class))
+                                 }),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<Long, ProductLookupDto>> lookup(
+            HttpServletRequest request,
+            @RequestBody
+            List<Long> ids
+    ) {
+
+        this.logRequest(request, ids.size() + " ids");
+
+        var productsById = this.productService.lookup(ids);
+
+        return ResponseEntity.ok(productsById);
+    }
+
     /**
      * Increase the stock of products
      *
@@ -223,6 +455,8 @@ public class ProductController {
      */
     @Operation(
             summary = "Increase the stock of products",
+            description = "With a " + STOCK_SAGA_ID + " the stock taken by that saga is given back at most once, "
+                          + "and a saga that did not take stock yet can't take it anymore.",
             responses = {
                     @ApiResponse(responseCode = "204"),
                     @ApiResponse(responseCode = "400",
@@ -233,6 +467,9 @@ public class ProductController {
     @PutMapping("/increase-stock")
     public ResponseEntity<Object> increaseStock(
             HttpServletRequest request,
+            @RequestHeader(name = STOCK_SAGA_ID,
+                           required = false)
+            String stockSagaId,
             @Valid
             @RequestBody
             List<ProductStockQuantityDto> productsQuantities
@@ -240,12 +477,51 @@ public class ProductController {
 
         this.logRequest(request, productsQuantities);
 
-        this.productService.increaseStock(productsQuantities);
+        this.productService.increaseStock(productsQuantities, stockSagaId);
 
         return ResponseEntity.noContent()
                              .build();
     }
 
+    /**
+     * Decrease the stock of products and get their prices in a single call
+     *
+     * @param request            The HttpServletRequest.
+     * @param productsQuantities The products and quantities to decrease.
+     * @return The price of every product, by id.
+     */
+    @Operation(
+            summary = "Decrease the stock of products and get their prices",
+            description = "A " + STOCK_SAGA_ID + " can take stock only once, and not after it gave its stock back.",
+            responses = {
+                    @ApiResponse(responseCode = "200",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(type = "object",
+                                                                   additionalPropertiesSchema = BigDecimal.class))
+                                 }),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PutMapping("/decrease-stock-and-price")
+    public ResponseEntity<Map<Long, BigDecimal>> decreaseStockAndPrice(
+            HttpServletRequest request,
+            @RequestHeader(name = STOCK_SAGA_ID,
+                           required = false)
+            String stockSagaId,
+            @Valid
+            @RequestBody
+            List<ProductStockQuantityDto> productsQuantities
+    ) {
+        this.logRequest(request, productsQuantities);
+
+        var priceById = this.productService.decreaseStockAndPrice(productsQuantities, stockSagaId);
+
+        return ResponseEntity.ok(priceById);
+    }
+
     /**
      * Decrease the stock of products
      *
@@ -270,7 +546,94 @@ public class ProductController {
             List<ProductStockQuantityDto> productsQuantities
     ) {
         this.logRequest(request, productsQuantities);
-        this.productService.decreaseStock(productsQuantities);
+        this.stockDecreaseBatcher.decreaseStock(productsQuantities);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reserve stock of products until the reservation is confirmed, released or expires
+     *
+     * @param request            The HttpServletRequest.
+     * @param productsQuantities The products and quantities to reserve.
+     * @return The created reservation.
+     */
+    @Operation(
+            summary = "Reserve stock of products",
+            responses = {
+                    @ApiResponse(responseCode = "201",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ReservationDto.class))
+                                 }),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PostMapping("/reservations")
+    public ResponseEntity<ReservationDto> reserve(
+            HttpServletRequest request,
+            @Valid
+            @RequestBody
+            List<ProductStockQuantityDto> productsQuantities
+    ) {
+        this.logRequest(request, productsQuantities);
+        var reservationDto = this.reservationService.reserve(productsQuantities);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                             .body(reservationDto);
+    }
+
+    /**
+     * Confirm a reservation, its stock is not given back anymore
+     *
+     * @param request       The HttpServletRequest.
+     * @param reservationId The reservation id.
+     * @return No content.
+     */
+    @Operation(
+            summary = "Confirm a stock reservation",
+            responses = {
+                    @ApiResponse(responseCode = "204"),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PutMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<Object> confirmReservation(
+            HttpServletRequest request,
+            @PathVariable
+            Long reservationId
+    ) {
+        this.logRequest(request, null);
+        this.reservationService.confirm(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Release a reservation, its stock is given back
+     *
+     * @param request       The HttpServletRequest.
+     * @param reservationId The reservation id.
+     * @return No content.
+     */
+    @Operation(
+            summary = "Release a stock reservation",
+            responses = {
+                    @ApiResponse(responseCode = "204"),
+                    @ApiResponse(responseCode = "400",
+                                 content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                    schema = @Schema(implementation = ProblemDetail.class)))
+            }
+    )
+    @PutMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<Object> releaseReservation(
+            HttpServletRequest request,
+            @PathVariable
+            Long reservationId
+    ) {
+        this.logRequest(request, null);
+        this.reservationService.release(reservationId);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -23,7 +23,7 @@ public class ProductControllerErrorHandling {
 
         var problemDetail = ProblemDetail.forStatusAndDetail(status, exception.getMessage());
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        return ResponseEntity.status(status)
                              .body(problemDetail);
     }
 
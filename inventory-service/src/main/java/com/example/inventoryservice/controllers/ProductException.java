@@ -9,6 +9,13 @@ public class ProductException
     public static final String PRODUCT_DOES_NOT_EXIST = "That product does not exists";
     public static final String ALREADY_EXISTS_PRODUCT = "Already exists an product with that name";
     public static final String SOME_IDS_DOES_NOT_EXIST = "Some id's does not exist";
+    public static final String RESERVATION_DOES_NOT_EXIST = "That reservation does not exists";
+    public static final String RESERVATION_NOT_ACTIVE = "The reservation is already confirmed, released or expired";
+    public static final String INVALID_IMPORT_HEADER = "The CSV header must contain name, price and quantity";
+    public static final String IMPORT_ROW_NOT_STORED = "The product could not be stored";
+    public static final String TOO_MANY_IDS = "Too many ids in a single lookup";
+    public static final String STOCK_SAGA_ALREADY_USED = "The stock saga already took or gave back its stock";
+    public static final String STOCK_BATCHER_BUSY = "Too many stock decreases waiting, try again later";
     public HttpStatusCode statusCode;
 
     public ProductException(final String s) {
@@ -18,4 +25,12 @@ public class ProductException
     public ProductException(final HttpStatusCode statusCode) {
         this.statusCode = statusCode;
     }
+
+    public ProductException(
+            final HttpStatusCode statusCode,
+            final String s
+    ) {
+        super(s);
+        this.statusCode = statusCode;
+    }
 }
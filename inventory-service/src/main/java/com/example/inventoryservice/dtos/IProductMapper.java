@@ -14,6 +14,8 @@ public interface IProductMapper {
 
     List<ProductDto> toDto(List<Product> products);
 
+    ProductLookupDto toLookupDto(ProductDto productDto);
+
     void partialUpdate(
             ProductCreateDto productCreateDto,
             @MappingTarget
@@ -0,0 +1,23 @@
+package com.example.inventoryservice.dtos;
+
+import com.example.inventoryservice.models.ReservedProduct;
+import com.example.inventoryservice.models.StockReservation;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE,
+        componentModel = MappingConstants.ComponentModel.SPRING)
+public interface IReservationMapper {
+    ReservationDto toDto(StockReservation stockReservation);
+
+    ProductStockQuantityDto toDto(ReservedProduct reservedProduct);
+
+    List<ProductStockQuantityDto> toDto(List<ReservedProduct> reservedProducts);
+
+    ReservedProduct toReservedProduct(ProductStockQuantityDto productStockQuantityDto);
+
+    List<ReservedProduct> toReservedProducts(List<ProductStockQuantityDto> productsQuantities);
+}
@@ -4,6 +4,7 @@ import com.example.inventoryservice.models.Product;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
 import java.io.Serializable;
@@ -15,12 +16,14 @@ import java.math.BigDecimal;
 @Builder
 public record ProductCreateDto(
         @NotBlank
+        @Size(max = 255)
         String name,
         @NotNull
         @Positive(message = "Only positive number allowed")
         BigDecimal price,
         @Positive(message = "Only positive number allowed")
         int quantity,
+        @Size(max = 255)
         String description
 )
         implements Serializable {
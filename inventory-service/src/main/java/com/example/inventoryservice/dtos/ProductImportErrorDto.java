@@ -0,0 +1,16 @@
+package com.example.inventoryservice.dtos;
+
+import lombok.Builder;
+
+import java.io.Serializable;
+
+/**
+ * A rejected row of a product import, {@code line} is 1-based and counts the CSV header
+ */
+@Builder
+public record ProductImportErrorDto(
+        long line,
+        String message
+)
+        implements Serializable {
+}
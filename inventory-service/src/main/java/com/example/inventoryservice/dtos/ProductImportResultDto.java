@@ -0,0 +1,18 @@
+package com.example.inventoryservice.dtos;
+
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Outcome of a product import, {@code errors} holds at most the first rejected rows
+ */
+@Builder
+public record ProductImportResultDto(
+        long imported,
+        long rejected,
+        List<ProductImportErrorDto> errors
+)
+        implements Serializable {
+}
@@ -0,0 +1,19 @@
+package com.example.inventoryservice.dtos;
+
+import com.example.inventoryservice.models.Product;
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Compact DTO for {@link Product} used by the batch lookup, where results are keyed by id
+ */
+@Builder
+public record ProductLookupDto(
+        String name,
+        BigDecimal price,
+        int quantity
+)
+        implements Serializable {
+}
@@ -0,0 +1,17 @@
+package com.example.inventoryservice.dtos;
+
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A keyset page of {@link ProductDto}, {@code nextCursor} is null on the last page
+ */
+@Builder
+public record ProductPageDto(
+        List<ProductDto> products,
+        Long nextCursor
+)
+        implements Serializable {
+}
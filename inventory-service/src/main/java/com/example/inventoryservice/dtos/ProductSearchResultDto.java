@@ -0,0 +1,17 @@
+package com.example.inventoryservice.dtos;
+
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of {@link ProductDto} search hits, best match first, {@code total} counts every hit
+ */
+@Builder
+public record ProductSearchResultDto(
+        List<ProductDto> products,
+        int total
+)
+        implements Serializable {
+}
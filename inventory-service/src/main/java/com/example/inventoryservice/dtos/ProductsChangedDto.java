@@ -0,0 +1,18 @@
+package com.example.inventoryservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Event raised when the stored state of some products changed
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Builder
+public record ProductsChangedDto(
+        List<Long> productIds
+)
+        implements Serializable {
+}
@@ -0,0 +1,21 @@
+package com.example.inventoryservice.dtos;
+
+import com.example.inventoryservice.models.ReservationStatus;
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for {@link com.example.inventoryservice.models.StockReservation}
+ */
+@Builder
+public record ReservationDto(
+        Long id,
+        ReservationStatus status,
+        List<ProductStockQuantityDto> products,
+        LocalDateTime expiresAt
+)
+        implements Serializable {
+}
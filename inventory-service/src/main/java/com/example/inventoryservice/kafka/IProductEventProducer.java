@@ -0,0 +1,7 @@
+package com.example.inventoryservice.kafka;
+
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+
+public interface IProductEventProducer {
+    void sendProductsChanged(ProductsChangedDto message);
+}
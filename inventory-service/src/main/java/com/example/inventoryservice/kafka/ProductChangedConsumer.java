@@ -0,0 +1,59 @@
+package com.example.inventoryservice.kafka;
+
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.example.inventoryservice.services.ProductCache;
+import com.example.inventoryservice.services.ProductSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductChangedConsumer
+        implements ConsumerSeekAware {
+
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Every replica receives every change, drops it from its cache and indexes the products it has not seen yet.
+     * It does so without a consumer group: it assigns itself all the partitions of the topic and commits nothing,
+     * so replicas leave nothing behind on the broker however often pods are replaced. Partitions added to the topic
+     * later are only read after a restart.
+     */
+    @KafkaListener(id = "product-changed-consumer",
+                   idIsGroup = false,
+                   topicPartitions = @org.springframework.kafka.annotation.TopicPartition(
+                           topic = "${api.kafka.topics.product-changed}",
+                           partitions = "#{@topicPartitionFinder.partitions('${api.kafka.topics.product-changed}')}"
+                   ))
+    public void listen(String value) {
+        try {
+            var event = this.objectMapper.readValue(value, ProductsChangedDto.class);
+            this.productCache.invalidate(event.productIds());
+            this.productSearchIndex.onProductsChanged(event.productIds());
+        } catch (JsonProcessingException e) {
+            log.error("Error reading product-changed event {}: {}", value, e.getMessage());
+        }
+    }
+
+    /**
+     * Starts from the latest change, the cache and the index begin empty anyway.
+     */
+    @Override
+    public void onPartitionsAssigned(
+            final Map<TopicPartition, Long> assignments,
+            final ConsumerSeekCallback callback
+    ) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.inventoryservice.kafka;
+
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductEventProducer
+        implements IProductEventProducer {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${api.kafka.topics.product-changed}")
+    private String topicProductChanged;
+
+    @Override
+    public void sendProductsChanged(final ProductsChangedDto message) {
+        var data = this.serializeData(message);
+
+        this.kafkaTemplate.send(this.topicProductChanged, data)
+                          .whenComplete((sendResult, ex) -> {
+                              if (ex != null) {
+                                  log.error("Error publishing product-changed: {}", ex.getMessage());
+                              }
+                          });
+    }
+
+    private String serializeData(final ProductsChangedDto message) {
+        try {
+            return this.objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.inventoryservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Looks up the partitions of a topic while the listeners are created, for listeners that assign themselves
+ * every partition instead of joining a consumer group.
+ * <p>
+ * Falls back to partition 0, the only one of a topic the broker created on its own, when the topic does not exist yet
+ * or the broker can't be reached, so the service still starts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TopicPartitionFinder {
+
+    private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    public String[] partitions(final String topic) {
+        try (var consumer = this.consumerFactory.createConsumer()) {
+            var partitions = consumer.partitionsFor(topic, LOOKUP_TIMEOUT);
+
+            if (partitions == null || partitions.isEmpty()) {
+                log.warn("Topic {} has no partitions yet, listening to partition 0", topic);
+                return new String[]{"0"};
+            }
+
+            return partitions.stream()
+                             .map(PartitionInfo::partition)
+                             .map(String::valueOf)
+                             .toArray(String[]::new);
+        } catch (KafkaException e) {
+            log.warn("Could not look up the partitions of {}, listening to partition 0: {}", topic, e.getMessage());
+            return new String[]{"0"};
+        }
+    }
+}
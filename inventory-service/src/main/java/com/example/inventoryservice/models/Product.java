@@ -4,14 +4,19 @@ package com.example.inventoryservice.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Getter
 @Setter
 @Builder
 @Entity(name = "product")
+@Table(indexes = @Index(columnList = "created_at, id"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
@@ -20,6 +25,9 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Unique, see {@link com.example.inventoryservice.config.ProductNameIndexMigration}
+     */
     @NotNull
     private String name;
 
@@ -27,11 +35,22 @@ public class Product {
             scale = 2)
     private BigDecimal price;
 
-    @NotNull
+    /**
+     * Read from {@link ProductStock}, stock is only ever written there
+     */
+    @Formula("COALESCE((SELECT s.quantity FROM product_stock s WHERE s.product_id = id), 0)")
     private int quantity;
 
     private String description;
 
+    /**
+     * Set by the database for bulk imports, which bypass Hibernate
+     */
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,49 @@
+package com.example.inventoryservice.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.Objects;
+
+/**
+ * The stock counter of a {@link Product}, kept in its own narrow table so stock writes
+ * never touch the catalog row.
+ */
+@Getter
+@Setter
+@Builder
+@Entity(name = "product_stock")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStock {
+
+    @Id
+    private Long productId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY,
+              optional = false)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @NotNull
+    private int quantity;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        var stock = (ProductStock) o;
+        return this.productId.equals(stock.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.productId);
+    }
+}
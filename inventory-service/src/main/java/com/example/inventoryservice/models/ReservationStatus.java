@@ -0,0 +1,8 @@
+package com.example.inventoryservice.models;
+
+public enum ReservationStatus {
+    ACTIVE,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
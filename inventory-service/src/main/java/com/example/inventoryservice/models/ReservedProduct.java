@@ -0,0 +1,20 @@
+package com.example.inventoryservice.models;
+
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservedProduct {
+
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    private int quantity;
+}
@@ -0,0 +1,50 @@
+package com.example.inventoryservice.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Stock taken for an order-service stock saga, keyed by the saga id it sends. Lets the saga give the stock back
+ * exactly once, even when it can't tell whether the stock was taken: giving back a saga that never took stock
+ * leaves a restored entry behind, which refuses the take if it arrives late.
+ */
+@Getter
+@Setter
+@Builder
+@Entity(name = "stock_saga_entry")
+@Table(indexes = @Index(columnList = "created_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSagaEntry {
+
+    @Id
+    private String sagaId;
+
+    private boolean restored;
+
+    @CreationTimestamp
+    @Column(nullable = false,
+            updatable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        var entry = (StockSagaEntry) o;
+        return this.sagaId.equals(entry.sagaId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.sagaId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductCreateDto;
+
+import java.util.List;
+
+public interface IProductImportRepository {
+
+    /**
+     * Inserts the products with a single JDBC batch, skipping the ones whose name already exists,
+     * going by the unique {@code product_name_key} index.
+     *
+     * @param products The products to insert.
+     * @return The positions in {@code products} that were skipped.
+     */
+    List<Integer> insertMissing(List<ProductCreateDto> products);
+}
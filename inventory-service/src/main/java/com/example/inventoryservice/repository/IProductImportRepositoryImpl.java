@@ -0,0 +1,48 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductCreateDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class IProductImportRepositoryImpl
+        implements IProductImportRepository {
+
+    private static final String INSERT_MISSING_SQL =
+            "WITH inserted AS ("
+            + "INSERT INTO product (name, price, description) VALUES (?, ?, ?) "
+            + "ON CONFLICT (name) DO NOTHING RETURNING id"
+            + ") INSERT INTO product_stock (product_id, quantity) SELECT id, ? FROM inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Integer> insertMissing(final List<ProductCreateDto> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        var updatedCounts = this.jdbcTemplate.batchUpdate(
+                INSERT_MISSING_SQL,
+                products,
+                products.size(),
+                (preparedStatement, product) -> {
+                    preparedStatement.setString(1, product.name());
+                    preparedStatement.setBigDecimal(2, product.price());
+                    preparedStatement.setString(3, product.description());
+                    preparedStatement.setInt(4, product.quantity());
+                }
+        )[0];
+
+        var skipped = new ArrayList<Integer>();
+        for (int i = 0; i < updatedCounts.length; i++) {
+            if (updatedCounts[i] == 0) {
+                skipped.add(i);
+            }
+        }
+        return skipped;
+    }
+}
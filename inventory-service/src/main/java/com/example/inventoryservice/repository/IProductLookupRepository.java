@@ -0,0 +1,17 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductDto;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface IProductLookupRepository {
+
+    /**
+     * Loads the products with a single {@code id = ANY (array)} query, whatever the number of ids.
+     *
+     * @param productIds The products to load.
+     * @return The products that exist, by id.
+     */
+    Map<Long, ProductDto> findDtosByIds(Collection<Long> productIds);
+}
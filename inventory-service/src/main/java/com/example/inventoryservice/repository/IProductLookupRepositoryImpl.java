@@ -0,0 +1,52 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class IProductLookupRepositoryImpl
+        implements IProductLookupRepository {
+
+    private static final String FIND_BY_IDS_SQL =
+            "SELECT p.id, p.name, p.price, p.description, COALESCE(s.quantity, 0) AS quantity "
+            + "FROM product p LEFT JOIN product_stock s ON s.product_id = p.id "
+            + "WHERE p.id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, ProductDto> findDtosByIds(final Collection<Long> productIds) {
+        var productsById = new HashMap<Long, ProductDto>();
+
+        if (productIds.isEmpty()) {
+            return productsById;
+        }
+
+        this.jdbcTemplate.query(
+                FIND_BY_IDS_SQL,
+                preparedStatement -> preparedStatement.setArray(
+                        1,
+                        preparedStatement.getConnection()
+                                         .createArrayOf("bigint", productIds.toArray())
+                ),
+                (RowCallbackHandler) resultSet -> productsById.put(
+                        resultSet.getLong("id"),
+                        ProductDto.builder()
+                                  .id(resultSet.getLong("id"))
+                                  .name(resultSet.getString("name"))
+                                  .price(resultSet.getBigDecimal("price"))
+                                  .quantity(resultSet.getInt("quantity"))
+                                  .description(resultSet.getString("description"))
+                                  .build()
+                )
+        );
+
+        return productsById;
+    }
+}
@@ -1,11 +1,49 @@
 package com.example.inventoryservice.repository;
 
 import com.example.inventoryservice.models.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface IProductRepository
-        extends JpaRepository<Product, Long> {
+        extends JpaRepository<Product, Long>, IProductStockRepository, IProductImportRepository,
+        IProductLookupRepository {
     boolean existsByName(String name);
 
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Products created after the given position, in (createdAt, id) order.
+     */
+    @Query("""
+            SELECT p FROM product p
+            WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)
+            ORDER BY p.createdAt, p.id
+            """)
+    List<Product> findCreatedAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query("SELECT p.id FROM product p WHERE p.name IN :names")
+    List<Long> findIdsByNameIn(@Param("names") Collection<String> names);
 
-}
\ No newline at end of file
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM product p ORDER BY p.id")
+    Stream<Product> streamAll();
+}
@@ -0,0 +1,8 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.models.ProductStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IProductStockEntityRepository
+        extends JpaRepository<ProductStock, Long> {
+}
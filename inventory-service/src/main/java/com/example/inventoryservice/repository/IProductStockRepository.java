@@ -0,0 +1,34 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface IProductStockRepository {
+
+    /**
+     * Conditionally decrements the stock of every product in a single JDBC batch.
+     *
+     * @param productsQuantities The products and quantities to decrease.
+     * @return The ids of the products whose stock could not be decreased (unknown id or not enough stock).
+     */
+    List<Long> decreaseStock(List<ProductStockQuantityDto> productsQuantities);
+
+    /**
+     * Increments the stock of every product in a single JDBC batch.
+     *
+     * @param productsQuantities The products and quantities to increase.
+     * @return The ids of the products that do not exist.
+     */
+    List<Long> increaseStock(List<ProductStockQuantityDto> productsQuantities);
+
+    /**
+     * Locks the rows of the products, in id order, until the end of the current transaction.
+     *
+     * @param productIds The products to lock.
+     * @return The current quantity of every product that exists.
+     */
+    Map<Long, Integer> lockStock(Collection<Long> productIds);
+}
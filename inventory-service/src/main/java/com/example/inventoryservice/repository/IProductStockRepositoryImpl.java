@@ -0,0 +1,107 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class IProductStockRepositoryImpl
+        implements IProductStockRepository {
+
+    private static final String DECREASE_STOCK_SQL =
+            "UPDATE product_stock SET quantity = quantity - ? "
+            + "WHERE product_id = ? AND quantity >= ?";
+    private static final String INCREASE_STOCK_SQL =
+            "UPDATE product_stock SET quantity = quantity + ? WHERE product_id = ?";
+    private static final String LOCK_STOCK_SQL =
+            "SELECT product_id, quantity FROM product_stock "
+            + "WHERE product_id = ANY (?) ORDER BY product_id FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decreaseStock(final List<ProductStockQuantityDto> productsQuantities) {
+        return this.batchUpdate(DECREASE_STOCK_SQL, productsQuantities, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getValue());
+            preparedStatement.setLong(2, row.getKey());
+            preparedStatement.setInt(3, row.getValue());
+        });
+    }
+
+    @Override
+    public List<Long> increaseStock(final List<ProductStockQuantityDto> productsQuantities) {
+        return this.batchUpdate(INCREASE_STOCK_SQL, productsQuantities, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getValue());
+            preparedStatement.setLong(2, row.getKey());
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> lockStock(final Collection<Long> productIds) {
+        var quantityById = new HashMap<Long, Integer>();
+
+        this.jdbcTemplate.query(
+                LOCK_STOCK_SQL,
+                preparedStatement -> preparedStatement.setArray(
+                        1,
+                        preparedStatement.getConnection()
+                                         .createArrayOf("bigint", productIds.toArray())
+                ),
+                (RowCallbackHandler) resultSet -> quantityById.put(resultSet.getLong("product_id"), resultSet.getInt("quantity"))
+        );
+
+        return quantityById;
+    }
+
+    /**
+     * Runs the statement once per product in a single batch and returns the ids whose row was not updated
+     */
+    private List<Long> batchUpdate(
+            final String sql,
+            final List<ProductStockQuantityDto> productsQuantities,
+            final ParameterizedPreparedStatementSetter<Map.Entry<Long, Integer>> statementSetter
+    ) {
+
+        // Merge repeated ids and sort them, so concurrent batches always lock rows in the same order
+        var quantityById = new TreeMap<Long, Integer>();
+        productsQuantities.forEach(productQuantity -> quantityById.merge(
+                productQuantity.productId(),
+                productQuantity.quantity(),
+                Integer::sum
+        ));
+
+        var rows = new ArrayList<>(quantityById.entrySet());
+
+        // An empty batch comes back without any count array to read
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        var updatedCounts = this.jdbcTemplate.batchUpdate(
+                sql,
+                rows,
+                rows.size(),
+                statementSetter
+        );
+
+        var failedIds = new ArrayList<Long>();
+        var counts = updatedCounts[0];
+
+        for (var i = 0; i < rows.size(); i++) {
+            if (counts[i] == 0) {
+                failedIds.add(rows.get(i).getKey());
+            }
+        }
+
+        return failedIds;
+    }
+}
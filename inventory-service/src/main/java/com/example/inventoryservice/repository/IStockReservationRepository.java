@@ -0,0 +1,44 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.models.ReservationStatus;
+import com.example.inventoryservice.models.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IStockReservationRepository
+        extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Moves the reservation to a new status only if it still has the expected one,
+     * so concurrent confirm, release and expiry calls can't both succeed.
+     *
+     * @return 1 if the status changed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE stock_reservation r SET r.status = :to, r.updatedAt = :now "
+            + "WHERE r.id = :id AND r.status = :from AND (:onlyIfNotExpired = false OR r.expiresAt > :now)")
+    int updateStatus(
+            @Param("id")
+            Long id,
+            @Param("from")
+            ReservationStatus from,
+            @Param("to")
+            ReservationStatus to,
+            @Param("now")
+            LocalDateTime now,
+            @Param("onlyIfNotExpired")
+            boolean onlyIfNotExpired
+    );
+
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(
+            ReservationStatus status,
+            LocalDateTime expiresAt,
+            Limit limit
+    );
+}
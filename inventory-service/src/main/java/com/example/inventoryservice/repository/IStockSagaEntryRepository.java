@@ -0,0 +1,51 @@
+package com.example.inventoryservice.repository;
+
+import com.example.inventoryservice.models.StockSagaEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IStockSagaEntryRepository
+        extends JpaRepository<StockSagaEntry, String> {
+
+    /**
+     * Inserts the entry unless the saga already has one. A concurrent insert of the same saga waits for
+     * the first one to commit, so only one of them ever gets 1.
+     *
+     * @return 1 if the entry was inserted, 0 if the saga already had one.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_saga_entry (saga_id, restored, created_at) VALUES (:sagaId, :restored, :now) "
+                   + "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+            @Param("sagaId")
+            String sagaId,
+            @Param("restored")
+            boolean restored,
+            @Param("now")
+            LocalDateTime now
+    );
+
+    /**
+     * @return 1 if the stock of the saga has to be given back now, 0 if it was already given back.
+     */
+    @Modifying
+    @Query("UPDATE stock_saga_entry e SET e.restored = true WHERE e.sagaId = :sagaId AND e.restored = false")
+    int markRestored(
+            @Param("sagaId")
+            String sagaId
+    );
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM stock_saga_entry e WHERE e.createdAt < :before")
+    int deleteBefore(
+            @Param("before")
+            LocalDateTime before
+    );
+}
@@ -0,0 +1,20 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.dtos.ProductImportResultDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public interface IProductImportService {
+
+    /**
+     * Imports products from CSV with a header row naming at least the name, price and quantity columns.
+     * Quoted fields are supported, but not line breaks inside them.
+     */
+    ProductImportResultDto importCsv(BufferedReader reader) throws IOException;
+
+    /**
+     * Imports products from newline delimited JSON, one {@link com.example.inventoryservice.dtos.ProductCreateDto} per line.
+     */
+    ProductImportResultDto importNdjson(BufferedReader reader) throws IOException;
+}
@@ -2,9 +2,15 @@ package com.example.inventoryservice.services;
 
 import com.example.inventoryservice.dtos.ProductCreateDto;
 import com.example.inventoryservice.dtos.ProductDto;
+import com.example.inventoryservice.dtos.ProductLookupDto;
+import com.example.inventoryservice.dtos.ProductPageDto;
+import com.example.inventoryservice.dtos.ProductSearchResultDto;
 import com.example.inventoryservice.dtos.ProductStockQuantityDto;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IProductService {
 
@@ -12,11 +18,59 @@ public interface IProductService {
 
     List<ProductDto> getAll();
 
-    void increaseStock(List<ProductStockQuantityDto> productsQuantities);
+    ProductPageDto getPage(Long after, int limit);
+
+    void streamAll(Consumer<ProductDto> consumer);
+
+    /**
+     * Increases the stock of the products. With a stock saga id, it gives back the stock the saga took,
+     * at most once, and if the saga never took any stock, nothing is given back and a late take is refused.
+     *
+     * @param productsQuantities The products and quantities to increase.
+     * @param stockSagaId        The stock saga giving its stock back, or null.
+     */
+    void increaseStock(List<ProductStockQuantityDto> productsQuantities, String stockSagaId);
 
     void decreaseStock(List<ProductStockQuantityDto> productsQuantities);
 
+    /**
+     * Decreases the stock like {@link #decreaseStock(List)} and returns the current price of every product,
+     * in the same transaction.
+     *
+     * @param productsQuantities The products and quantities to decrease.
+     * @param stockSagaId        The stock saga taking the stock, or null.
+     * @return The price of every product, by id.
+     */
+    Map<Long, BigDecimal> decreaseStockAndPrice(List<ProductStockQuantityDto> productsQuantities, String stockSagaId);
+
+    /**
+     * Applies several independent decrease-stock requests in one transaction, in the given order.
+     * A request either gets all its quantities or none of them.
+     *
+     * @param requests The products and quantities of every request.
+     * @return For every request, the ids it could not get enough stock for, empty when it succeeded.
+     */
+    List<List<Long>> decreaseStockBatch(List<List<ProductStockQuantityDto>> requests);
+
     ProductDto getOneById(Long id);
 
     List<ProductDto> getAllByIds(List<Long> ids);
+
+    /**
+     * Looks up many products at once.
+     *
+     * @param ids The product ids, unknown ids are left out of the result.
+     * @return The products by id, in the order of {@code ids}.
+     */
+    Map<Long, ProductLookupDto> lookup(List<Long> ids);
+
+    /**
+     * Searches product names and descriptions, every word of the query matching as a prefix.
+     *
+     * @param query  The words to search for.
+     * @param offset How many hits to skip.
+     * @param limit  The maximum number of hits to return.
+     * @return A page of hits, best match first.
+     */
+    ProductSearchResultDto search(String query, int offset, int limit);
 }
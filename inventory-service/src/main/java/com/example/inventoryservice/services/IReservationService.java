@@ -0,0 +1,24 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import com.example.inventoryservice.dtos.ReservationDto;
+
+import java.util.List;
+
+public interface IReservationService {
+
+    ReservationDto reserve(List<ProductStockQuantityDto> productsQuantities);
+
+    void confirm(Long reservationId);
+
+    void release(Long reservationId);
+
+    List<Long> findExpiredIds(int limit);
+
+    /**
+     * Gives back the stock of an active reservation that is past its expiry.
+     *
+     * @return false if the reservation was confirmed or released in the meantime.
+     */
+    boolean expire(Long reservationId);
+}
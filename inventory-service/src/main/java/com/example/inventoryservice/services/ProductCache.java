@@ -0,0 +1,62 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.dtos.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Size and TTL bounded cache of {@link ProductDto} by id, exported as the "products" cache metrics
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductDto> cache;
+
+    public ProductCache(
+            final MeterRegistry meterRegistry,
+            @Value("${api.product-cache.maximum-size:10000}")
+            final long maximumSize,
+            @Value("${api.product-cache.ttl:5m}")
+            final Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(ttl)
+                             .recordStats()
+                             .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "products");
+    }
+
+    public ProductDto get(
+            final Long id,
+            final Function<Long, ProductDto> loader
+    ) {
+        return this.cache.get(id, loader);
+    }
+
+    /**
+     * Returns the cached products, loading all the missing ones with a single call to the loader.
+     * Ids that the loader does not return are absent from the result.
+     */
+    public Map<Long, ProductDto> getAll(
+            final Collection<Long> ids,
+            final Function<Set<? extends Long>, Map<Long, ProductDto>> loader
+    ) {
+        return this.cache.getAll(ids, loader);
+    }
+
+    public void invalidate(final Collection<Long> ids) {
+        this.cache.invalidateAll(ids);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.example.inventoryservice.kafka.IProductEventProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final IProductEventProducer productEventProducer;
+
+    /**
+     * Runs once the write is committed, so a reader can't put the old row back in the cache
+     * before the new one is visible. Other replicas are told through the product-changed topic.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(final ProductsChangedDto event) {
+        this.productCache.invalidate(event.productIds());
+        this.productSearchIndex.onProductsChanged(event.productIds());
+
+        try {
+            this.productEventProducer.sendProductsChanged(event);
+        } catch (Exception e) {
+            log.error("Error publishing product-changed for {}: {}", event.productIds(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.controllers.ProductException;
+import com.example.inventoryservice.dtos.ProductCreateDto;
+import com.example.inventoryservice.dtos.ProductImportErrorDto;
+import com.example.inventoryservice.dtos.ProductImportResultDto;
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.example.inventoryservice.repository.IProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the import line by line and writes every {@code batchSize} valid rows in their own transaction,
+ * so memory stays constant whatever the size of the catalog and a bad row only rejects itself.
+ * A batch the database refuses is retried row by row, rejecting just the rows that fail again.
+ */
+@Slf4j
+@Service
+public class ProductImportService
+        implements IProductImportService {
+
+    private final IProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectReader productReader;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(
+            final IProductRepository productRepository,
+            final TransactionTemplate transactionTemplate,
+            final ApplicationEventPublisher eventPublisher,
+            final Validator validator,
+            final ObjectMapper objectMapper,
+            @Value("${api.product-import.batch-size:1000}")
+            final int batchSize,
+            @Value("${api.product-import.max-reported-errors:1000}")
+            final int maxReportedErrors
+    ) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.productReader = objectMapper.readerFor(ProductCreateDto.class);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ProductImportResultDto importCsv(final BufferedReader reader) throws IOException {
+        var header = reader.readLine();
+        if (header == null) {
+            throw new ProductException(ProductException.INVALID_IMPORT_HEADER);
+        }
+
+        var columns = new HashMap<String, Integer>();
+        var headerFields = parseCsvLine(header);
+        for (int i = 0; i < headerFields.size(); i++) {
+            columns.put(headerFields.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "price", "quantity"))) {
+            throw new ProductException(ProductException.INVALID_IMPORT_HEADER);
+        }
+
+        return this.importLines(reader, 1, line -> toProduct(parseCsvLine(line), columns));
+    }
+
+    @Override
+    public ProductImportResultDto importNdjson(final BufferedReader reader) throws IOException {
+        return this.importLines(reader, 0, line -> {
+            ProductCreateDto product;
+            try {
+                product = this.productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+
+            // A literal null line reads as no object at all
+            if (product == null) {
+                throw new IllegalArgumentException("Empty record");
+            }
+            return product;
+        });
+    }
+
+    private ProductImportResultDto importLines(
+            final BufferedReader reader,
+            final long linesBefore,
+            final Function<String, ProductCreateDto> parser
+    ) throws IOException {
+        var result = new ImportProgress();
+        var batch = new ArrayList<ProductCreateDto>(this.batchSize);
+        var batchLines = new ArrayList<Long>(this.batchSize);
+
+        var lineNumber = linesBefore;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ProductCreateDto product;
+            try {
+                product = parser.apply(line);
+            } catch (IllegalArgumentException e) {
+                result.reject(lineNumber, e.getMessage());
+                continue;
+            }
+
+            var violations = this.validator.validate(product);
+            if (!violations.isEmpty()) {
+                result.reject(lineNumber, describe(violations));
+                continue;
+            }
+
+            batch.add(product);
+            batchLines.add(lineNumber);
+
+            if (batch.size() == this.batchSize) {
+                this.flush(batch, batchLines, result);
+            }
+        }
+        this.flush(batch, batchLines, result);
+
+        log.info("Imported {} products, rejected {}", result.imported, result.rejected);
+
+        return ProductImportResultDto.builder()
+                                     .imported(result.imported)
+                                     .rejected(result.rejected)
+                                     .errors(result.errors)
+                                     .build();
+    }
+
+    private void flush(
+            final List<ProductCreateDto> batch,
+            final List<Long> batchLines,
+            final ImportProgress result
+    ) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Integer> skipped;
+        try {
+            skipped = this.transactionTemplate.execute(status -> this.productRepository.insertMissing(batch));
+            skipped.forEach(index -> result.reject(batchLines.get(index), ProductException.ALREADY_EXISTS_PRODUCT));
+        } catch (DataAccessException e) {
+            log.warn("Import batch ending at line {} failed, retrying it row by row: {}",
+                     batchLines.get(batchLines.size() - 1), e.getMostSpecificCause().getMessage());
+            skipped = this.insertOneByOne(batch, batchLines, result);
+        }
+
+        var skippedIndexes = Set.copyOf(skipped);
+        var importedNames = new ArrayList<String>(batch.size() - skipped.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!skippedIndexes.contains(i)) {
+                importedNames.add(batch.get(i).name());
+            }
+        }
+        result.imported += importedNames.size();
+
+        // Committed already, so the listeners index and announce the new products right away
+        if (!importedNames.isEmpty()) {
+            this.eventPublisher.publishEvent(ProductsChangedDto.builder()
+                                                               .productIds(this.productRepository.findIdsByNameIn(importedNames))
+                                                               .build());
+        }
+
+        batch.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * Inserts every row of a failed batch in its own transaction, so only the rows the database refuses are rejected.
+     *
+     * @return The positions in {@code batch} that were not imported, rejected already.
+     */
+    private List<Integer> insertOneByOne(
+            final List<ProductCreateDto> batch,
+            final List<Long> batchLines,
+            final ImportProgress result
+    ) {
+        var skipped = new ArrayList<Integer>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            var product = List.of(batch.get(i));
+            try {
+                var existing = this.transactionTemplate.execute(status -> this.productRepository.insertMissing(product));
+                if (!existing.isEmpty()) {
+                    skipped.add(i);
+                    result.reject(batchLines.get(i), ProductException.ALREADY_EXISTS_PRODUCT);
+                }
+            } catch (DataAccessException e) {
+                skipped.add(i);
+                result.reject(batchLines.get(i), ProductException.IMPORT_ROW_NOT_STORED + ": "
+                                                 + e.getMostSpecificCause().getMessage().lines().findFirst().orElse(""));
+            }
+        }
+        return skipped;
+    }
+
+    private static ProductCreateDto toProduct(
+            final List<String> fields,
+            final Map<String, Integer> columns
+    ) {
+        var price = field(fields, columns, "price");
+        var quantity = field(fields, columns, "quantity");
+
+        try {
+            return ProductCreateDto.builder()
+                                   .name(field(fields, columns, "name"))
+                                   .price(price == null ? null : new BigDecimal(price.trim()))
+                                   .quantity(quantity == null ? 0 : Integer.parseInt(quantity.trim()))
+                                   .description(field(fields, columns, "description"))
+                                   .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price and quantity must be numbers");
+        }
+    }
+
+    private static String field(
+            final List<String> fields,
+            final Map<String, Integer> columns,
+            final String column
+    ) {
+        var index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static List<String> parseCsvLine(final String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    private static String describe(final Set<ConstraintViolation<ProductCreateDto>> violations) {
+        return violations.stream()
+                         .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                         .sorted()
+                         .collect(Collectors.joining(", "));
+    }
+
+    private final class ImportProgress {
+
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private void reject(
+                final long line,
+                final String message
+        ) {
+            this.rejected++;
+            if (this.errors.size() < ProductImportService.this.maxReportedErrors) {
+                this.errors.add(new ProductImportErrorDto(line, message));
+            }
+        }
+    }
+}
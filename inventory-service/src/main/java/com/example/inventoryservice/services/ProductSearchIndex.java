@@ -0,0 +1,256 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.models.Product;
+import com.example.inventoryservice.repository.IProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product names and descriptions. Every query term matches as a prefix,
+ * all terms must match, and hits are ranked by how many and how exact the matches are,
+ * name matches weighing more than description ones.
+ * <p>
+ * Names and descriptions never change once a product is created, so the index only ever adds products:
+ * all of them at startup, then the ones reported by local writes and other replicas, and, on a fixed delay,
+ * the ones created since the previous refresh. Each refresh goes back {@code refresh-overlap} further,
+ * so products whose transaction committed after a refresh had already passed their creation time are not missed.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_TERM_BONUS = 2;
+
+    public record SearchHits(
+            List<Long> productIds,
+            int total
+    ) {
+    }
+
+    private final IProductRepository productRepository;
+    private final int refreshBatchSize;
+    private final Duration refreshOverlap;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Integer> nameLengths = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile LocalDateTime lastRefreshAt;
+
+    public ProductSearchIndex(
+            final IProductRepository productRepository,
+            @Value("${api.product-search.refresh-batch-size:1000}")
+            final int refreshBatchSize,
+            @Value("${api.product-search.refresh-overlap:5m}")
+            final Duration refreshOverlap
+    ) {
+        this.productRepository = productRepository;
+        this.refreshBatchSize = refreshBatchSize;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        var startedAt = LocalDateTime.now();
+        var lastIndexedId = 0L;
+        List<Product> products;
+
+        do {
+            products = this.productRepository.findByIdGreaterThanOrderByIdAsc(lastIndexedId, Limit.of(this.refreshBatchSize));
+            this.indexAll(products);
+
+            if (!products.isEmpty()) {
+                lastIndexedId = products.get(products.size() - 1).getId();
+            }
+        } while (products.size() == this.refreshBatchSize);
+
+        this.lastRefreshAt = startedAt;
+        log.info("Product search index built with {} products", this.size());
+    }
+
+    /**
+     * Indexes the changed products that are not indexed yet. Stock changes only touch known ids and cost nothing.
+     */
+    public void onProductsChanged(final Collection<Long> productIds) {
+        List<Long> unknownIds;
+
+        this.lock.readLock().lock();
+        try {
+            unknownIds = productIds.stream()
+                                   .filter(productId -> !this.nameLengths.containsKey(productId))
+                                   .distinct()
+                                   .toList();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        if (unknownIds.isEmpty()) {
+            return;
+        }
+
+        this.indexAll(this.productRepository.findAllById(unknownIds));
+    }
+
+    /**
+     * Indexes the products created since the previous refresh, which picks up bulk imports and
+     * writes other replicas could not report.
+     */
+    @Scheduled(fixedDelayString = "${api.product-search.refresh-interval-ms:60000}",
+               initialDelayString = "${api.product-search.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (this.lastRefreshAt == null) {
+            return;
+        }
+
+        var startedAt = LocalDateTime.now();
+        var createdAt = this.lastRefreshAt.minus(this.refreshOverlap);
+        var id = 0L;
+        List<Product> products;
+
+        do {
+            products = this.productRepository.findCreatedAfter(createdAt, id, Limit.of(this.refreshBatchSize));
+            this.indexAll(products);
+
+            if (!products.isEmpty()) {
+                var last = products.get(products.size() - 1);
+                createdAt = last.getCreatedAt();
+                id = last.getId();
+            }
+        } while (products.size() == this.refreshBatchSize);
+
+        this.lastRefreshAt = startedAt;
+    }
+
+    public SearchHits search(
+            final String query,
+            final int offset,
+            final int limit
+    ) {
+        var queryTerms = tokenize(query).stream()
+                                        .distinct()
+                                        .toList();
+
+        if (queryTerms.isEmpty()) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        List<Long> ranked;
+
+        this.lock.readLock().lock();
+        try {
+            ranked = this.matchAll(queryTerms)
+                         .entrySet()
+                         .stream()
+                         .sorted(Comparator.<Map.Entry<Long, Integer>>comparingInt(Map.Entry::getValue)
+                                           .reversed()
+                                           .thenComparingInt(entry -> this.nameLengths.get(entry.getKey()))
+                                           .thenComparingLong(Map.Entry::getKey))
+                         .map(Map.Entry::getKey)
+                         .toList();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        var from = Math.min(offset, ranked.size());
+        var to = Math.min(from + limit, ranked.size());
+
+        return new SearchHits(ranked.subList(from, to), ranked.size());
+    }
+
+    private void indexAll(final List<Product> products) {
+        this.lock.writeLock().lock();
+        try {
+            products.forEach(this::index);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.nameLengths.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> matchAll(final List<String> queryTerms) {
+        Map<Long, Integer> scores = null;
+
+        for (var queryTerm : queryTerms) {
+            var termScores = new HashMap<Long, Integer>();
+
+            this.postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                         .forEach((term, weights) -> {
+                             var factor = term.equals(queryTerm) ? EXACT_TERM_BONUS : 1;
+                             weights.forEach((productId, weight) -> termScores.merge(productId, weight * factor, Integer::sum));
+                         });
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((productId, score) -> score + termScores.get(productId));
+            }
+
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        return scores;
+    }
+
+    private void index(final Product product) {
+        if (this.nameLengths.containsKey(product.getId())) {
+            return;
+        }
+
+        var weights = new HashMap<String, Integer>();
+        tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> this.postings.computeIfAbsent(term, key -> new HashMap<>())
+                                                       .put(product.getId(), weight));
+
+        this.nameLengths.put(product.getId(), product.getName().length());
+    }
+
+    private static List<String> tokenize(final String text) {
+        var terms = new ArrayList<String>();
+
+        if (text == null) {
+            return terms;
+        }
+
+        for (var token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
@@ -1,18 +1,37 @@
 package com.example.inventoryservice.services;
 
+import com.example.inventoryservice.config.RetryOnConflict;
 import com.example.inventoryservice.controllers.ProductException;
 import com.example.inventoryservice.dtos.IProductMapper;
 import com.example.inventoryservice.dtos.ProductCreateDto;
 import com.example.inventoryservice.dtos.ProductDto;
+import com.example.inventoryservice.dtos.ProductLookupDto;
+import com.example.inventoryservice.dtos.ProductPageDto;
+import com.example.inventoryservice.dtos.ProductSearchResultDto;
 import com.example.inventoryservice.dtos.ProductStockQuantityDto;
-import com.example.inventoryservice.models.Product;
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.example.inventoryservice.models.ProductStock;
 import com.example.inventoryservice.repository.IProductRepository;
+import com.example.inventoryservice.repository.IProductStockEntityRepository;
+import com.example.inventoryservice.repository.IStockSagaEntryRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,9 +39,21 @@ import java.util.stream.Collectors;
 public class ProductService
         implements IProductService {
 
+    private static final int MAX_PAGE_LIMIT = 500;
+
     private final IProductMapper productMapper;
     private final IProductRepository productRepository;
+    private final IProductStockEntityRepository productStockEntityRepository;
+    private final IStockSagaEntryRepository stockSagaEntryRepository;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${api.product-lookup.max-ids:10000}")
+    private int maxLookupIds;
+
+    @Transactional
     @Override
     public ProductDto addOne(final ProductCreateDto productCreateDto) {
 
@@ -36,6 +67,13 @@ public class ProductService
 
         var productSaved = this.productRepository.save(product);
 
+        this.productStockEntityRepository.save(ProductStock.builder()
+                                                           .product(productSaved)
+                                                           .quantity(productCreateDto.quantity())
+                                                           .build());
+
+        this.publishProductsChanged(List.of(productSaved.getId()));
+
         return this.productMapper.toDto(productSaved);
     }
 
@@ -46,80 +84,232 @@ public class ProductService
         return this.productMapper.toDto(productsList);
     }
 
+    @Override
+    public ProductPageDto getPage(
+            final Long after,
+            final int limit
+    ) {
+        var pageLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        var cursor = after == null ? 0L : after;
+
+        var products = this.productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(pageLimit));
+
+        var nextCursor = products.size() < pageLimit
+                         ? null
+                         : products.get(products.size() - 1)
+                                   .getId();
+
+        return ProductPageDto.builder()
+                             .products(this.productMapper.toDto(products))
+                             .nextCursor(nextCursor)
+                             .build();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAll(final Consumer<ProductDto> consumer) {
+        try (var products = this.productRepository.streamAll()) {
+            products.forEach(product -> {
+                consumer.accept(this.productMapper.toDto(product));
+                // Keep the persistence context empty, otherwise it grows with every row read
+                this.entityManager.detach(product);
+            });
+        }
+    }
+
     @Override
     public ProductDto getOneById(final Long id) {
-        var product = this.productRepository.findById(id)
-                                            .orElseThrow(() -> new ProductException(ProductException.PRODUCT_DOES_NOT_EXIST));
+        return this.productCache.get(id, productId -> {
+            var product = this.productRepository.findById(productId)
+                                                .orElseThrow(() -> new ProductException(ProductException.PRODUCT_DOES_NOT_EXIST));
 
-        return this.productMapper.toDto(product);
+            return this.productMapper.toDto(product);
+        });
     }
 
     @Override
     public List<ProductDto> getAllByIds(final List<Long> ids) {
-        var products = this.productRepository.findAllById(ids);
-        return this.productMapper.toDto(products);
+        var productsById = this.getCachedByIds(ids);
+
+        return ids.stream()
+                  .distinct()
+                  .map(productsById::get)
+                  .filter(Objects::nonNull)
+                  .toList();
     }
 
     @Override
-    public void increaseStock(final List<ProductStockQuantityDto> productsQuantities) {
+    public Map<Long, ProductLookupDto> lookup(final List<Long> ids) {
+        if (ids.size() > this.maxLookupIds) {
+            throw new ProductException(ProductException.TOO_MANY_IDS + ", max " + this.maxLookupIds);
+        }
 
-        var productsMap = this.createProductsMapFromQuantities(productsQuantities);
+        var productsById = this.getCachedByIds(ids);
 
-        productsQuantities
-                .forEach(productQuantity -> {
-                    var product = productsMap.get(productQuantity.productId());
-                    var newQuantity = product.getQuantity() + productQuantity.quantity();
+        var lookup = new LinkedHashMap<Long, ProductLookupDto>();
+        ids.forEach(id -> {
+            var productDto = productsById.get(id);
+            if (productDto != null) {
+                lookup.putIfAbsent(id, this.productMapper.toLookupDto(productDto));
+            }
+        });
+        return lookup;
+    }
 
-                    product.setQuantity(newQuantity);
-                });
+    @Override
+    public ProductSearchResultDto search(
+            final String query,
+            final int offset,
+            final int limit
+    ) {
+        var hits = this.productSearchIndex.search(query, Math.max(offset, 0), Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT));
+
+        return ProductSearchResultDto.builder()
+                                     .products(this.getAllByIds(hits.productIds()))
+                                     .total(hits.total())
+                                     .build();
+    }
 
-        var updatedProducts = productsMap.values()
-                                         .stream()
-                                         .toList();
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public void increaseStock(
+            final List<ProductStockQuantityDto> productsQuantities,
+            final String stockSagaId
+    ) {
+
+        if (stockSagaId != null && !this.restoresStock(stockSagaId)) {
+            return;
+        }
 
-        this.productRepository.saveAll(updatedProducts);
+        var missingIds = this.productRepository.increaseStock(productsQuantities);
+
+        if (!missingIds.isEmpty()) {
+            throw new ProductException(ProductException.PRODUCT_DOES_NOT_EXIST);
+        }
+
+        this.publishProductsChanged(productsQuantities.stream()
+                                                      .map(ProductStockQuantityDto::productId)
+                                                      .distinct()
+                                                      .toList());
     }
 
+    @RetryOnConflict
+    @Transactional
     @Override
     public void decreaseStock(final List<ProductStockQuantityDto> productsQuantities) {
 
-        var productsMap = this.createProductsMapFromQuantities(productsQuantities);
+        var failedIds = this.productRepository.decreaseStock(productsQuantities);
 
-        productsQuantities
-                .forEach(productQuantity -> {
-                    var product = productsMap.get(productQuantity.productId());
-                    var newQuantity = product.getQuantity() - productQuantity.quantity();
+        if (!failedIds.isEmpty()) {
+            // Throwing rolls back the decrements that did succeed, so the batch is all or nothing
+            throw new ProductException(ProductException.QUANTITY_LOWER_ZERO + ", " + failedIds);
+        }
 
-                    if (newQuantity < 0) {
-                        throw new ProductException(ProductException.QUANTITY_LOWER_ZERO + ", " + product.getName() + ", " + product.getQuantity());
-                    }
+        this.publishProductsChanged(productsQuantities.stream()
+                                                      .map(ProductStockQuantityDto::productId)
+                                                      .distinct()
+                                                      .toList());
+    }
 
-                    product.setQuantity(newQuantity);
-                });
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public Map<Long, BigDecimal> decreaseStockAndPrice(
+            final List<ProductStockQuantityDto> productsQuantities,
+            final String stockSagaId
+    ) {
 
-        var updatedProducts = productsMap.values()
-                                         .stream()
-                                         .toList();
+        if (stockSagaId != null && this.stockSagaEntryRepository.insertIfAbsent(stockSagaId, false, LocalDateTime.now()) == 0) {
+            throw new ProductException(ProductException.STOCK_SAGA_ALREADY_USED);
+        }
 
-        this.productRepository.saveAll(updatedProducts);
-    }
+        this.decreaseStock(productsQuantities);
 
-    private Map<Long, Product> createProductsMapFromQuantities(final List<ProductStockQuantityDto> productsQuantities) {
         var productIds = productsQuantities.stream()
                                            .map(ProductStockQuantityDto::productId)
+                                           .distinct()
                                            .toList();
 
-        var productsMap = this.createProductsMap(productIds);
+        // Read in the same transaction as the decrement, not from the cache
+        var productsById = this.productRepository.findDtosByIds(productIds);
 
-        if (productsMap.size() != productIds.size()) {
-            throw new ProductException(ProductException.PRODUCT_DOES_NOT_EXIST);
+        var priceById = new LinkedHashMap<Long, BigDecimal>();
+        productIds.forEach(productId -> priceById.put(productId, productsById.get(productId).price()));
+        return priceById;
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public List<List<Long>> decreaseStockBatch(final List<List<ProductStockQuantityDto>> requests) {
+
+        var productIds = requests.stream()
+                                 .flatMap(List::stream)
+                                 .map(ProductStockQuantityDto::productId)
+                                 .collect(Collectors.toSet());
+
+        // Rows stay locked until commit, so what is checked here is what gets written below
+        var availableById = new HashMap<>(this.productRepository.lockStock(productIds));
+
+        var accepted = new ArrayList<ProductStockQuantityDto>();
+        var failedIdsByRequest = new ArrayList<List<Long>>();
+
+        for (var request : requests) {
+            var quantityById = new LinkedHashMap<Long, Integer>();
+            request.forEach(productQuantity -> quantityById.merge(productQuantity.productId(), productQuantity.quantity(), Integer::sum));
+
+            var failedIds = quantityById.entrySet()
+                                        .stream()
+                                        .filter(entry -> availableById.getOrDefault(entry.getKey(), 0) < entry.getValue())
+                                        .map(Map.Entry::getKey)
+                                        .toList();
+
+            if (failedIds.isEmpty()) {
+                quantityById.forEach((productId, quantity) -> availableById.merge(productId, -quantity, Integer::sum));
+                accepted.addAll(request);
+            }
+
+            failedIdsByRequest.add(failedIds);
         }
-        return productsMap;
+
+        if (!accepted.isEmpty()) {
+            var notUpdatedIds = this.productRepository.decreaseStock(accepted);
+
+            if (!notUpdatedIds.isEmpty()) {
+                throw new IllegalStateException("Locked products changed during the batch: " + notUpdatedIds);
+            }
+
+            this.publishProductsChanged(accepted.stream()
+                                                .map(ProductStockQuantityDto::productId)
+                                                .distinct()
+                                                .toList());
+        }
+
+        return failedIdsByRequest;
     }
 
-    private Map<Long, Product> createProductsMap(final List<Long> productIds) {
-        return this.productRepository.findAllById(productIds)
-                                     .stream()
-                                     .collect(Collectors.toMap(Product::getId, Function.identity()));
+    /**
+     * @return Whether the saga took stock that was not given back yet. Either way the saga is marked as restored.
+     */
+    private boolean restoresStock(final String stockSagaId) {
+        if (this.stockSagaEntryRepository.insertIfAbsent(stockSagaId, true, LocalDateTime.now()) == 1) {
+            // The take never arrived, the entry now refuses it
+            return false;
+        }
+
+        return this.stockSagaEntryRepository.markRestored(stockSagaId) == 1;
+    }
+
+    private Map<Long, ProductDto> getCachedByIds(final List<Long> ids) {
+        return this.productCache.getAll(ids, missingIds -> this.productRepository.findDtosByIds(List.copyOf(missingIds)));
+    }
+
+    private void publishProductsChanged(final Collection<Long> productIds) {
+        var event = ProductsChangedDto.builder()
+                                      .productIds(List.copyOf(productIds))
+                                      .build();
+
+        this.eventPublisher.publishEvent(event);
     }
 }
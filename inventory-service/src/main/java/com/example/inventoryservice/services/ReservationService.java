@@ -0,0 +1,159 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.config.RetryOnConflict;
+import com.example.inventoryservice.controllers.ProductException;
+import com.example.inventoryservice.dtos.IReservationMapper;
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import com.example.inventoryservice.dtos.ProductsChangedDto;
+import com.example.inventoryservice.dtos.ReservationDto;
+import com.example.inventoryservice.models.ReservationStatus;
+import com.example.inventoryservice.models.StockReservation;
+import com.example.inventoryservice.repository.IProductRepository;
+import com.example.inventoryservice.repository.IStockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationService
+        implements IReservationService {
+
+    private final IStockReservationRepository reservationRepository;
+    private final IProductRepository productRepository;
+    private final IReservationMapper reservationMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${api.reservations.ttl:10m}")
+    private Duration ttl;
+
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public ReservationDto reserve(final List<ProductStockQuantityDto> productsQuantities) {
+
+        var failedIds = this.productRepository.decreaseStock(productsQuantities);
+
+        if (!failedIds.isEmpty()) {
+            throw new ProductException(ProductException.QUANTITY_LOWER_ZERO + ", " + failedIds);
+        }
+
+        var reservation = StockReservation.builder()
+                                          .status(ReservationStatus.ACTIVE)
+                                          .products(this.reservationMapper.toReservedProducts(productsQuantities))
+                                          .expiresAt(LocalDateTime.now()
+                                                                  .plus(this.ttl))
+                                          .build();
+
+        var reservationSaved = this.reservationRepository.save(reservation);
+
+        this.publishProductsChanged(productsQuantities);
+
+        return this.reservationMapper.toDto(reservationSaved);
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public void confirm(final Long reservationId) {
+
+        var updated = this.reservationRepository.updateStatus(
+                reservationId,
+                ReservationStatus.ACTIVE,
+                ReservationStatus.CONFIRMED,
+                LocalDateTime.now(),
+                true
+        );
+
+        if (updated == 0) {
+            throw this.notActiveException(reservationId);
+        }
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public void release(final Long reservationId) {
+        if (!this.returnStock(reservationId, ReservationStatus.RELEASED)) {
+            throw this.notActiveException(reservationId);
+        }
+    }
+
+    @Override
+    public List<Long> findExpiredIds(final int limit) {
+        return this.reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(
+                           ReservationStatus.ACTIVE,
+                           LocalDateTime.now(),
+                           Limit.of(limit)
+                   )
+                   .stream()
+                   .map(StockReservation::getId)
+                   .toList();
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public boolean expire(final Long reservationId) {
+        return this.returnStock(reservationId, ReservationStatus.EXPIRED);
+    }
+
+    /**
+     * Moves an active reservation to {@code status} and puts its quantities back in stock
+     *
+     * @return false if the reservation was not active
+     */
+    private boolean returnStock(
+            final Long reservationId,
+            final ReservationStatus status
+    ) {
+        var updated = this.reservationRepository.updateStatus(
+                reservationId,
+                ReservationStatus.ACTIVE,
+                status,
+                LocalDateTime.now(),
+                false
+        );
+
+        if (updated == 0) {
+            return false;
+        }
+
+        var reservation = this.reservationRepository.findById(reservationId)
+                                                    .orElseThrow(() -> new ProductException(ProductException.RESERVATION_DOES_NOT_EXIST));
+
+        var productsQuantities = this.reservationMapper.toDto(reservation.getProducts());
+
+        this.productRepository.increaseStock(productsQuantities);
+        this.publishProductsChanged(productsQuantities);
+
+        return true;
+    }
+
+    private ProductException notActiveException(final Long reservationId) {
+        if (this.reservationRepository.existsById(reservationId)) {
+            return new ProductException(ProductException.RESERVATION_NOT_ACTIVE);
+        }
+        return new ProductException(ProductException.RESERVATION_DOES_NOT_EXIST);
+    }
+
+    private void publishProductsChanged(final List<ProductStockQuantityDto> productsQuantities) {
+        var productIds = productsQuantities.stream()
+                                           .map(ProductStockQuantityDto::productId)
+                                           .distinct()
+                                           .toList();
+
+        this.eventPublisher.publishEvent(ProductsChangedDto.builder()
+                                                           .productIds(productIds)
+                                                           .build());
+    }
+}
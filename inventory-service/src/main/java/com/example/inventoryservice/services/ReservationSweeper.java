@@ -0,0 +1,41 @@
+package com.example.inventoryservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationSweeper {
+
+    private final IReservationService reservationService;
+
+    @Value("${api.reservations.sweep-batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Gives back the stock of the reservations that expired without being confirmed or released.
+     * Each reservation is expired in its own transaction, so one failure doesn't hold back the rest.
+     */
+    @Scheduled(fixedDelayString = "${api.reservations.sweep-interval-ms:30000}")
+    public void sweep() {
+        var expiredCount = 0;
+
+        for (var reservationId : this.reservationService.findExpiredIds(this.batchSize)) {
+            try {
+                if (this.reservationService.expire(reservationId)) {
+                    expiredCount++;
+                }
+            } catch (Exception e) {
+                log.error("Error expiring reservation {}: {}", reservationId, e.getMessage(), e);
+            }
+        }
+
+        if (expiredCount > 0) {
+            log.info("Expired {} stock reservations", expiredCount);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.controllers.ProductException;
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.inventoryservice.controllers.ProductException.QUANTITY_LOWER_ZERO;
+
+/**
+ * Optional group-commit stage in front of {@link IProductService#decreaseStock(List)}.
+ * Requests arriving within the same window are applied in one transaction by a single worker thread,
+ * and every caller gets its own success or failure back.
+ * <p>
+ * At most {@code queue-capacity} requests wait, and none longer than {@code wait-timeout}. Both are answered
+ * with 503 and are guaranteed to take no stock: a request is only applied once the worker claimed it,
+ * and a claimed request is waited for until its batch commits.
+ */
+@Slf4j
+@Component
+public class StockDecreaseBatcher {
+
+    private record PendingDecrease(
+            List<ProductStockQuantityDto> productsQuantities,
+            CompletableFuture<Void> result,
+            AtomicBoolean claimed
+    ) {
+    }
+
+    private final IProductService productService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Duration waitTimeout;
+    private final BlockingQueue<PendingDecrease> queue;
+
+    private Thread worker;
+
+    public StockDecreaseBatcher(
+            final IProductService productService,
+            @Value("${api.stock-batching.enabled:false}")
+            final boolean enabled,
+            @Value("${api.stock-batching.window:5ms}")
+            final Duration window,
+            @Value("${api.stock-batching.max-batch-size:200}")
+            final int maxBatchSize,
+            @Value("${api.stock-batching.queue-capacity:10000}")
+            final int queueCapacity,
+            @Value("${api.stock-batching.wait-timeout:2s}")
+            final Duration waitTimeout
+    ) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.waitTimeout = waitTimeout;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!this.enabled) {
+            return;
+        }
+
+        this.worker = new Thread(this::run, "stock-decrease-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (this.worker == null) {
+            return;
+        }
+
+        this.worker.interrupt();
+        this.worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Decreases the stock of the products, waiting for the batch the request ends up in.
+     *
+     * @param productsQuantities The products and quantities to take.
+     * @throws ProductException If any of the products does not have enough stock, or with 503 if the request
+     *                          could not be queued or was not picked up within the wait timeout.
+     */
+    public void decreaseStock(final List<ProductStockQuantityDto> productsQuantities) {
+        if (!this.enabled) {
+            this.productService.decreaseStock(productsQuantities);
+            return;
+        }
+
+        var pending = new PendingDecrease(productsQuantities, new CompletableFuture<>(), new AtomicBoolean());
+
+        if (!this.queue.offer(pending)) {
+            throw new ProductException(HttpStatus.SERVICE_UNAVAILABLE, ProductException.STOCK_BATCHER_BUSY);
+        }
+
+        try {
+            pending.result()
+                   .copy()
+                   .orTimeout(this.waitTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                   .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                this.onTimeout(pending);
+                return;
+            }
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Gives up on a request the worker has not claimed yet. A claimed one is in a batch being applied,
+     * so its outcome is waited for instead of being reported as not taken.
+     */
+    private void onTimeout(final PendingDecrease pending) {
+        if (pending.claimed().compareAndSet(false, true)) {
+            throw new ProductException(HttpStatus.SERVICE_UNAVAILABLE, ProductException.STOCK_BATCHER_BUSY);
+        }
+
+        try {
+            pending.result().join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(final CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    private void run() {
+        var batch = new ArrayList<PendingDecrease>(this.maxBatchSize);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(this.queue.take());
+
+                var deadline = System.nanoTime() + this.windowNanos;
+                while (batch.size() < this.maxBatchSize) {
+                    var next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                // Requests whose caller gave up are dropped, the rest can no longer time out
+                batch.removeIf(pending -> !pending.claimed().compareAndSet(false, true));
+                if (!batch.isEmpty()) {
+                    this.apply(batch);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.queue.drainTo(batch);
+            batch.forEach(pending -> pending.result().completeExceptionally(
+                    new IllegalStateException("Stock decrease batcher is shutting down")
+            ));
+        }
+    }
+
+    private void apply(final List<PendingDecrease> batch) {
+        try {
+            var failedIdsByRequest = this.productService.decreaseStockBatch(
+                    batch.stream()
+                         .map(PendingDecrease::productsQuantities)
+                         .toList()
+            );
+
+            for (int i = 0; i < batch.size(); i++) {
+                var failedIds = failedIdsByRequest.get(i);
+
+                if (failedIds.isEmpty()) {
+                    batch.get(i).result().complete(null);
+                } else {
+                    batch.get(i).result().completeExceptionally(new ProductException(QUANTITY_LOWER_ZERO + ", " + failedIds));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply a batch of {} stock decreases", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.repository.IStockSagaEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockSagaEntrySweeper {
+
+    private final IStockSagaEntryRepository stockSagaEntryRepository;
+
+    @Value("${api.stock-sagas.retention:30d}")
+    private Duration retention;
+
+    /**
+     * Deletes the entries of sagas old enough that order-service has long finished them.
+     */
+    @Scheduled(fixedDelayString = "${api.stock-sagas.cleanup-interval-ms:3600000}")
+    public void sweep() {
+        var deleted = this.stockSagaEntryRepository.deleteBefore(LocalDateTime.now().minus(this.retention));
+
+        if (deleted > 0) {
+            log.info("Deleted {} stock saga entries", deleted);
+        }
+    }
+}
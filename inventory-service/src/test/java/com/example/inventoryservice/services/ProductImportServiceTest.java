@@ -0,0 +1,193 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.controllers.ProductException;
+import com.example.inventoryservice.dtos.ProductCreateDto;
+import com.example.inventoryservice.dtos.ProductImportErrorDto;
+import com.example.inventoryservice.repository.IProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    private static final String CSV_HEADER = "name,price,quantity,description\n";
+
+    @Mock
+    IProductRepository productRepository;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    ProductImportService productImportService;
+
+    /**
+     * Copies of what every insertMissing call got, the service reuses the batch list
+     */
+    private final List<List<ProductCreateDto>> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        this.productImportService = new ProductImportService(this.productRepository, this.transactionTemplate, this.eventPublisher,
+                                                             Validation.buildDefaultValidatorFactory().getValidator(),
+                                                             new ObjectMapper(), 2, 100);
+
+        lenient().when(this.transactionTemplate.execute(any()))
+                 .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(this.productRepository.insertMissing(anyList()))
+                 .thenAnswer(invocation -> {
+                     this.inserted.add(List.copyOf(invocation.<List<ProductCreateDto>>getArgument(0)));
+                     return List.of();
+                 });
+    }
+
+    @Test
+    void importCsv_WhenFieldsAreQuoted_ShouldKeepCommasAndEscapedQuotes() throws Exception {
+        //Arrange
+        var csv = CSV_HEADER + "\"Desk, oak\",199.90,5,\"The \"\"big\"\" one\"\n";
+
+        //Act
+        var result = this.productImportService.importCsv(reader(csv));
+
+        //Assert
+        Assertions.assertEquals(1, result.imported());
+        var product = this.inserted.get(0).get(0);
+        Assertions.assertEquals("Desk, oak", product.name());
+        Assertions.assertEquals(0, new BigDecimal("199.90").compareTo(product.price()));
+        Assertions.assertEquals(5, product.quantity());
+        Assertions.assertEquals("The \"big\" one", product.description());
+    }
+
+    @Test
+    void importCsv_WhenLinesAreInvalid_ShouldRejectOnlyThoseLines() throws Exception {
+        //Arrange
+        var csv = CSV_HEADER
+                  + "Lamp,12.50,3,\n"
+                  + "\"Chair,10,1,\n"
+                  + "Table,cheap,1,\n"
+                  + "\n"
+                  + "Shelf,-1,1,\n";
+
+        //Act
+        var result = this.productImportService.importCsv(reader(csv));
+
+        //Assert
+        Assertions.assertEquals(1, result.imported());
+        Assertions.assertEquals(3, result.rejected());
+        Assertions.assertEquals(List.of(3L, 4L, 6L), result.errors()
+                                                           .stream()
+                                                           .map(ProductImportErrorDto::line)
+                                                           .toList());
+    }
+
+    @Test
+    void importCsv_WhenHeaderMissesAColumn_ShouldThrowProductException() {
+        //Act and Assert
+        var exception = Assertions.assertThrows(ProductException.class,
+                                                () -> this.productImportService.importCsv(reader("name,price\nLamp,12.50\n")));
+        Assertions.assertEquals(ProductException.INVALID_IMPORT_HEADER, exception.getMessage());
+        verifyNoInteractions(this.productRepository);
+    }
+
+    @Test
+    void importNdjson_WhenLineIsMalformed_ShouldRejectItAndImportTheOthers() throws Exception {
+        //Arrange
+        var ndjson = """
+                {"name":"Lamp","price":12.50,"quantity":3}
+                {"name":"Chair",
+                null
+                {"name":"Table","price":80,"quantity":1}
+                """;
+
+        //Act
+        var result = this.productImportService.importNdjson(reader(ndjson));
+
+        //Assert
+        Assertions.assertEquals(2, result.imported());
+        Assertions.assertEquals(List.of(2L, 3L), result.errors()
+                                                       .stream()
+                                                       .map(ProductImportErrorDto::line)
+                                                       .toList());
+    }
+
+    @Test
+    void importCsv_WhenRowsExceedTheBatchSize_ShouldWriteThemInBatches() throws Exception {
+        //Arrange
+        var csv = CSV_HEADER + "A,1,1,\nB,1,1,\nC,1,1,\nD,1,1,\nE,1,1,\n";
+
+        //Act
+        var result = this.productImportService.importCsv(reader(csv));
+
+        //Assert
+        Assertions.assertEquals(5, result.imported());
+        Assertions.assertEquals(List.of(2, 2, 1), this.inserted.stream()
+                                                               .map(List::size)
+                                                               .toList());
+        verify(this.transactionTemplate, times(3)).execute(any());
+        verify(this.eventPublisher, times(3)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void importCsv_WhenProductAlreadyExists_ShouldRejectItsLine() throws Exception {
+        //Arrange
+        when(this.productRepository.insertMissing(anyList()))
+                .thenReturn(List.of(1));
+
+        //Act
+        var result = this.productImportService.importCsv(reader(CSV_HEADER + "Lamp,12.50,3,\nChair,10,1,\n"));
+
+        //Assert
+        Assertions.assertEquals(1, result.imported());
+        Assertions.assertEquals(List.of(new ProductImportErrorDto(3, ProductException.ALREADY_EXISTS_PRODUCT)), result.errors());
+    }
+
+    @Test
+    void importCsv_WhenBatchFails_ShouldRetryRowByRowAndRejectOnlyTheFailingRow() throws Exception {
+        //Arrange
+        when(this.productRepository.insertMissing(anyList()))
+                .thenAnswer(invocation -> {
+                    List<ProductCreateDto> products = invocation.getArgument(0);
+                    if (products.stream().anyMatch(product -> product.name().equals("Chair"))) {
+                        throw new DataIntegrityViolationException("value too long for type character varying(255)");
+                    }
+                    this.inserted.add(List.copyOf(products));
+                    return List.of();
+                });
+
+        //Act
+        var result = this.productImportService.importCsv(reader(CSV_HEADER + "Lamp,12.50,3,\nChair,10,1,\nTable,80,1,\n"));
+
+        //Assert
+        Assertions.assertEquals(2, result.imported());
+        Assertions.assertEquals(1, result.rejected());
+        Assertions.assertEquals(3, result.errors().get(0).line());
+        Assertions.assertTrue(result.errors().get(0).message().startsWith(ProductException.IMPORT_ROW_NOT_STORED));
+        Assertions.assertEquals(List.of("Lamp", "Table"), this.inserted.stream()
+                                                                   .flatMap(List::stream)
+                                                                   .map(ProductCreateDto::name)
+                                                                   .toList());
+    }
+
+    private static BufferedReader reader(final String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
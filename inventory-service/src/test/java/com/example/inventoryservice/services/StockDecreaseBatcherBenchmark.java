@@ -0,0 +1,147 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.dtos.ProductCreateDto;
+import com.example.inventoryservice.dtos.ProductDto;
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import com.example.inventoryservice.kafka.IProductEventProducer;
+import com.example.inventoryservice.models.Product;
+import com.example.inventoryservice.repository.IProductRepository;
+import com.example.inventoryservice.repository.IProductStockEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Flash-sale style comparison of the per-request decrease-stock path against {@link StockDecreaseBatcher}:
+ * many concurrent callers taking one unit from a handful of hot products.
+ * <p>
+ * Not picked up by the default surefire includes, run it explicitly with
+ * {@code mvn test -Dtest=StockDecreaseBatcherBenchmark}. Needs Docker for the Postgres container.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.kafka.listener.auto-startup=false",
+        "management.otlp.metrics.export.enabled=false",
+        "api.stock-batching.enabled=true"
+})
+class StockDecreaseBatcherBenchmark {
+
+    private static final int THREADS = 64;
+    private static final int REQUESTS_PER_THREAD = 200;
+    private static final int HOT_PRODUCTS = 4;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockBean
+    private IProductEventProducer productEventProducer;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private StockDecreaseBatcher stockDecreaseBatcher;
+
+    @Autowired
+    private IProductRepository productRepository;
+
+    @Autowired
+    private IProductStockEntityRepository productStockEntityRepository;
+
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        this.productStockEntityRepository.deleteAll();
+        this.productRepository.deleteAll();
+        this.productIds = IntStream.range(0, HOT_PRODUCTS)
+                                   .mapToObj(i -> this.productService.addOne(ProductCreateDto.builder()
+                                                                                             .name("hot-product-" + i)
+                                                                                             .price(BigDecimal.TEN)
+                                                                                             .quantity(THREADS * REQUESTS_PER_THREAD)
+                                                                                             .build()))
+                                   .map(ProductDto::id)
+                                   .toList();
+    }
+
+    @Test
+    void perRequestTransactions() throws Exception {
+        this.run("per-request", this.productService::decreaseStock);
+    }
+
+    @Test
+    void groupCommitBatches() throws Exception {
+        this.run("group-commit", this.stockDecreaseBatcher::decreaseStock);
+    }
+
+    private void run(
+            final String name,
+            final Consumer<List<ProductStockQuantityDto>> decreaseStock
+    ) throws Exception {
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var start = new CountDownLatch(1);
+        var failures = new AtomicInteger();
+        var tasks = new ArrayList<Callable<Void>>();
+
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    var productId = this.productIds.get(ThreadLocalRandom.current().nextInt(HOT_PRODUCTS));
+                    try {
+                        decreaseStock.accept(List.of(new ProductStockQuantityDto(productId, 1)));
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        var futures = tasks.stream().map(executor::submit).toList();
+        var startedAt = System.nanoTime();
+        start.countDown();
+        for (var future : futures) {
+            future.get();
+        }
+        var elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        var requests = THREADS * REQUESTS_PER_THREAD;
+        log.info("{}: {} requests in {} ms, {} requests/s",
+                 name, requests, TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(requests / (elapsed / 1e9)));
+
+        assertEquals(0, failures.get());
+        var remaining = this.productRepository.findAllById(this.productIds)
+                                              .stream()
+                                              .mapToInt(Product::getQuantity)
+                                              .sum();
+        assertEquals(HOT_PRODUCTS * THREADS * REQUESTS_PER_THREAD - requests, remaining);
+    }
+}
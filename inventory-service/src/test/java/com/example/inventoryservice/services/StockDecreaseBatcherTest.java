@@ -0,0 +1,132 @@
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.controllers.ProductException;
+import com.example.inventoryservice.dtos.ProductStockQuantityDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockDecreaseBatcherTest {
+
+    private static final List<ProductStockQuantityDto> FIRST_PRODUCT = List.of(new ProductStockQuantityDto(1L, 1));
+    private static final List<ProductStockQuantityDto> SECOND_PRODUCT = List.of(new ProductStockQuantityDto(2L, 1));
+
+    @Mock
+    IProductService productService;
+    StockDecreaseBatcher stockDecreaseBatcher;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void afterEach() throws Exception {
+        this.stockDecreaseBatcher.stop();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void decreaseStock_WhenRequestsArriveTogether_ShouldApplyThemInOneBatch() throws Exception {
+        //Arrange
+        this.stockDecreaseBatcher = this.batcher(Duration.ofSeconds(5), 2, 10, Duration.ofSeconds(10));
+        this.stockDecreaseBatcher.start();
+        when(this.productService.decreaseStockBatch(anyList()))
+                .thenReturn(List.of(List.of(), List.of()));
+
+        //Act
+        var first = CompletableFuture.runAsync(() -> this.stockDecreaseBatcher.decreaseStock(FIRST_PRODUCT), this.executor);
+        var second = CompletableFuture.runAsync(() -> this.stockDecreaseBatcher.decreaseStock(SECOND_PRODUCT), this.executor);
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        //Assert
+        verify(this.productService, times(1)).decreaseStockBatch(argThat(requests -> requests.size() == 2));
+        verify(this.productService, never()).decreaseStock(any());
+    }
+
+    @Test
+    void decreaseStock_WhenOneRequestLacksStock_ShouldRejectOnlyThatRequest() throws Exception {
+        //Arrange
+        this.stockDecreaseBatcher = this.batcher(Duration.ofSeconds(5), 2, 10, Duration.ofSeconds(10));
+        this.stockDecreaseBatcher.start();
+        when(this.productService.decreaseStockBatch(anyList()))
+                .thenAnswer(invocation -> invocation.<List<List<ProductStockQuantityDto>>>getArgument(0)
+                                                    .stream()
+                                                    .map(request -> request.equals(SECOND_PRODUCT) ? List.of(2L) : List.<Long>of())
+                                                    .toList());
+
+        //Act
+        var first = CompletableFuture.runAsync(() -> this.stockDecreaseBatcher.decreaseStock(FIRST_PRODUCT), this.executor);
+        var second = CompletableFuture.runAsync(() -> this.stockDecreaseBatcher.decreaseStock(SECOND_PRODUCT), this.executor);
+
+        //Assert
+        first.get(5, TimeUnit.SECONDS);
+        var exception = Assertions.assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        var cause = Assertions.assertInstanceOf(ProductException.class, exception.getCause());
+        Assertions.assertTrue(cause.getMessage().startsWith(ProductException.QUANTITY_LOWER_ZERO));
+        Assertions.assertNull(cause.statusCode);
+    }
+
+    @Test
+    void decreaseStock_WhenQueueIsFull_ShouldAnswerServiceUnavailableRightAway() throws Exception {
+        //Arrange
+        this.stockDecreaseBatcher = this.batcher(Duration.ofMillis(1), 10, 1, Duration.ofSeconds(10));
+        when(this.productService.decreaseStockBatch(anyList()))
+                .thenReturn(List.of(List.of()));
+
+        // No worker yet, so the first request stays in the only queue slot
+        var queued = new Thread(() -> this.stockDecreaseBatcher.decreaseStock(FIRST_PRODUCT));
+        queued.start();
+        while (queued.getState() != Thread.State.WAITING && queued.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        //Act
+        var exception = Assertions.assertThrows(ProductException.class, () -> this.stockDecreaseBatcher.decreaseStock(SECOND_PRODUCT));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.statusCode);
+        Assertions.assertEquals(ProductException.STOCK_BATCHER_BUSY, exception.getMessage());
+
+        this.stockDecreaseBatcher.start();
+        queued.join(TimeUnit.SECONDS.toMillis(5));
+        verify(this.productService, times(1)).decreaseStockBatch(List.of(FIRST_PRODUCT));
+    }
+
+    @Test
+    void decreaseStock_WhenNotPickedUpInTime_ShouldAnswerServiceUnavailableAndTakeNoStock() throws Exception {
+        //Arrange
+        this.stockDecreaseBatcher = this.batcher(Duration.ofMillis(1), 10, 10, Duration.ofMillis(50));
+
+        //Act
+        var exception = Assertions.assertThrows(ProductException.class, () -> this.stockDecreaseBatcher.decreaseStock(FIRST_PRODUCT));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.statusCode);
+
+        // The worker still finds the abandoned request in the queue and has to drop it
+        this.stockDecreaseBatcher.start();
+        verify(this.productService, after(200).never()).decreaseStockBatch(anyList());
+    }
+
+    private StockDecreaseBatcher batcher(
+            final Duration window,
+            final int maxBatchSize,
+            final int queueCapacity,
+            final Duration waitTimeout
+    ) {
+        return new StockDecreaseBatcher(this.productService, true, window, maxBatchSize, queueCapacity, waitTimeout);
+    }
+}
@@ -1,32 +1,42 @@
-INSERT INTO public.product (description, name, price, quantity)
-VALUES ('Wireless Trackpad', 'Trackpad', 49.99, 100),
-       ('27-inch LED Monitor', 'Monitor', 199.99, 50),
-       ('Bluetooth Speaker', 'Speaker', 39.95, 200),
-       ('Mechanical Gaming Keyboard', 'Keyboard', 89.50, 150),
-       ('Wireless Mouse', 'Mouse', 19.99, 75),
-       ('Noise-Canceling Headphones', 'Headphones', 129.00, 120),
-       ('External SSD Drive', 'SSD Drive', 149.99, 80),
-       ('Smartphone Tripod Stand', 'Tripod', 24.75, 250),
-       ('Portable Power Bank', 'Power Bank', 34.50, 180),
-       ('Wireless Earbuds', 'Earbuds', 79.95, 100),
-       ('Portable Bluetooth Keyboard', 'Bluetooth Keyboard', 59.99, 90),
-       ('Wireless Charging Pad', 'Charging Pad', 29.50, 150),
-       ('Ultra HD Webcam', 'Webcam', 79.99, 60),
-       ('Gaming Mousepad', 'Mousepad', 14.95, 200),
-       ('Adjustable Laptop Stand', 'Laptop Stand', 34.99, 120),
-       ('Bluetooth Gaming Controller', 'Gaming Controller', 69.95, 80),
-       ('USB-C Hub Adapter', 'Hub Adapter', 49.50, 100),
-       ('Fitness Tracker Watch', 'Fitness Tracker', 89.00, 50),
-       ('Portable Bluetooth Speaker', 'Bluetooth Speaker', 29.99, 180),
-       ('Wireless Keyboard and Mouse Combo', 'Keyboard Mouse Combo', 69.95, 70),
-       ('Portable External Hard Drive', 'External Hard Drive', 119.00, 40),
-       ('Wireless In-Ear Sport Earphones', 'Sport Earphones', 54.50, 110),
-       ('Foldable Laptop Cooling Pad', 'Cooling Pad', 24.99, 200),
-       ('Bluetooth Smart Scale', 'Smart Scale', 39.95, 90),
-       ('USB-C Fast Charger', 'Fast Charger', 19.50, 150),
-       ('Gaming Headset with Microphone', 'Gaming Headset', 79.99, 60),
-       ('Portable Laptop Power Adapter', 'Power Adapter', 49.95, 100),
-       ('Compact Wireless Mouse', 'Compact Mouse', 24.50, 200),
-       ('Wireless Presenter Remote', 'Presenter Remote', 29.99, 80),
-       ('Bluetooth In-Ear Headphones', 'In-Ear Headphones', 39.95, 120),
-       ('External DVD Drive', 'DVD Drive', 49.00, 70);
+WITH seed (description, name, price, quantity) AS (
+    VALUES ('Wireless Trackpad', 'Trackpad', 49.99, 100),
+           ('27-inch LED Monitor', 'Monitor', 199.99, 50),
+           ('Bluetooth Speaker', 'Speaker', 39.95, 200),
+           ('Mechanical Gaming Keyboard', 'Keyboard', 89.50, 150),
+           ('Wireless Mouse', 'Mouse', 19.99, 75),
+           ('Noise-Canceling Headphones', 'Headphones', 129.00, 120),
+           ('External SSD Drive', 'SSD Drive', 149.99, 80),
+           ('Smartphone Tripod Stand', 'Tripod', 24.75, 250),
+           ('Portable Power Bank', 'Power Bank', 34.50, 180),
+           ('Wireless Earbuds', 'Earbuds', 79.95, 100),
+           ('Portable Bluetooth Keyboard', 'Bluetooth Keyboard', 59.99, 90),
+           ('Wireless Charging Pad', 'Charging Pad', 29.50, 150),
+           ('Ultra HD Webcam', 'Webcam', 79.99, 60),
+           ('Gaming Mousepad', 'Mousepad', 14.95, 200),
+           ('Adjustable Laptop Stand', 'Laptop Stand', 34.99, 120),
+           ('Bluetooth Gaming Controller', 'Gaming Controller', 69.95, 80),
+           ('USB-C Hub Adapter', 'Hub Adapter', 49.50, 100),
+           ('Fitness Tracker Watch', 'Fitness Tracker', 89.00, 50),
+           ('Portable Bluetooth Speaker', 'Bluetooth Speaker', 29.99, 180),
+           ('Wireless Keyboard and Mouse Combo', 'Keyboard Mouse Combo', 69.95, 70),
+           ('Portable External Hard Drive', 'External Hard Drive', 119.00, 40),
+           ('Wireless In-Ear Sport Earphones', 'Sport Earphones', 54.50, 110),
+           ('Foldable Laptop Cooling Pad', 'Cooling Pad', 24.99, 200),
+           ('Bluetooth Smart Scale', 'Smart Scale', 39.95, 90),
+           ('USB-C Fast Charger', 'Fast Charger', 19.50, 150),
+           ('Gaming Headset with Microphone', 'Gaming Headset', 79.99, 60),
+           ('Portable Laptop Power Adapter', 'Power Adapter', 49.95, 100),
+           ('Compact Wireless Mouse', 'Compact Mouse', 24.50, 200),
+           ('Wireless Presenter Remote', 'Presenter Remote', 29.99, 80),
+           ('Bluetooth In-Ear Headphones', 'In-Ear Headphones', 39.95, 120),
+           ('External DVD Drive', 'DVD Drive', 49.00, 70)
+),
+inserted AS (
+    INSERT INTO public.product (description, name, price)
+    SELECT description, name, price FROM seed
+    RETURNING id, name
+)
+INSERT INTO public.product_stock (product_id, quantity)
+SELECT inserted.id, seed.quantity
+FROM inserted
+         JOIN seed ON seed.name = inserted.name;
@@ -0,0 +1,55 @@
+package com.example.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@RequiredArgsConstructor
+public class AsyncConfig {
+
+    private final ContextHolder contextHolder;
+
+    @Value("${api.inventory-calls.pool-size:32}")
+    private int poolSize;
+
+    @Value("${api.inventory-calls.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${api.order-workers.pool-size:16}")
+    private int orderWorkerPoolSize;
+
+    @Value("${api.order-workers.queue-capacity:1000}")
+    private int orderWorkerQueueCapacity;
+
+    /**
+     * Dedicated pool for the calls to inventory-service, so a slow inventory can't starve other async work.
+     */
+    @Bean(name = "inventoryCallExecutor")
+    public ThreadPoolTaskExecutor inventoryCallExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.poolSize);
+        executor.setMaxPoolSize(this.poolSize);
+        executor.setQueueCapacity(this.queueCapacity);
+        executor.setThreadNamePrefix("inventory-call-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator(this.contextHolder));
+        return executor;
+    }
+
+    /**
+     * Finishes the orders accepted asynchronously. Once the queue is full new orders are turned away,
+     * which pushes back on clients instead of piling up work.
+     */
+    @Bean(name = "orderWorkerExecutor")
+    public ThreadPoolTaskExecutor orderWorkerExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.orderWorkerPoolSize);
+        executor.setMaxPoolSize(this.orderWorkerPoolSize);
+        executor.setQueueCapacity(this.orderWorkerQueueCapacity);
+        executor.setThreadNamePrefix("order-worker-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator(this.contextHolder));
+        return executor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Copies the caller's {@link ContextData} to the pool thread running the task, so remote calls made there
+ * still carry the correlation id and user headers.
+ */
+@RequiredArgsConstructor
+public class ContextPropagatingTaskDecorator
+        implements TaskDecorator {
+
+    private final ContextHolder contextHolder;
+
+    @Override
+    public Runnable decorate(final Runnable runnable) {
+        var context = this.contextHolder.get();
+
+        return () -> {
+            this.contextHolder.set(context);
+            try {
+                runnable.run();
+            } finally {
+                this.contextHolder.remove();
+            }
+        };
+    }
+}
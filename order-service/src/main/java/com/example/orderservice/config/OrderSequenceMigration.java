@@ -0,0 +1,52 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.models.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of databases created when orders used identity columns past the existing ids,
+ * so sequence-allocated ids never collide with them. Does nothing once the sequences are ahead.
+ * <p>
+ * Runs while the context starts, once Hibernate has created the sequences and before the web server,
+ * the outbox relay and the pending-order sweep insert anything.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class OrderSequenceMigration
+        implements InitializingBean {
+
+    private static final Map<String, String> SEQUENCE_BY_TABLE = Map.of(
+            "orders", "orders_seq",
+            "order_products", "order_products_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCE_BY_TABLE.forEach((table, sequence) -> {
+            // Never below nextval, so a block another replica just allocated is never handed out again
+            var moved = this.jdbcTemplate.queryForList(
+                    "SELECT setval('" + sequence + "', GREATEST(nextval('" + sequence + "'), m.max_id + ?)) "
+                    + "FROM (SELECT MAX(id) AS max_id FROM " + table + ") m "
+                    + "WHERE m.max_id + ? > (SELECT last_value FROM " + sequence + ")",
+                    Long.class,
+                    Order.ID_ALLOCATION_SIZE,
+                    Order.ID_ALLOCATION_SIZE
+            );
+
+            if (!moved.isEmpty()) {
+                log.info("Moved {} to {}, past the existing ids of {}", sequence, moved.get(0), table);
+            }
+        });
+    }
+}
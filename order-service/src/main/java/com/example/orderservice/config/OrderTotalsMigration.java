@@ -0,0 +1,46 @@
+package com.example.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the line subtotals and order totals of orders created before they were stored.
+ * Does nothing once every line has a subtotal.
+ * <p>
+ * Runs while the context starts, once Hibernate has added the columns and before the web server serves
+ * any order without its total.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class OrderTotalsMigration
+        implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            var lines = this.jdbcTemplate.update("UPDATE order_products SET subtotal = price * quantity WHERE subtotal IS NULL");
+
+            if (lines == 0) {
+                return;
+            }
+
+            var orders = this.jdbcTemplate.update(
+                    "UPDATE orders o SET total = s.total "
+                    + "FROM (SELECT order_id, SUM(subtotal) AS total FROM order_products GROUP BY order_id) s "
+                    + "WHERE s.order_id = o.id AND o.total IS NULL"
+            );
+
+            log.info("Filled the subtotals of {} order lines and the totals of {} orders", lines, orders);
+        });
+    }
+}
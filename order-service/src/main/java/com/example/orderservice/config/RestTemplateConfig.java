@@ -9,6 +9,8 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class RestTemplateConfig {
@@ -16,6 +18,12 @@ public class RestTemplateConfig {
     @Value("${inventory-service.url}")
     private String inventoryServiceUrl;
 
+    @Value("${api.inventory-calls.connect-timeout:1s}")
+    private Duration inventoryConnectTimeout;
+
+    @Value("${api.inventory-calls.read-timeout:2s}")
+    private Duration inventoryReadTimeout;
+
     private final ContextHolder contextHolder;
     private final RestTemplateBuilder restTemplateBuilder;
 
@@ -37,6 +45,8 @@ public class RestTemplateConfig {
     public RestTemplate inventoryServiceRestTemplate(RestTemplateInterceptor restTemplateInterceptor) {
         RestTemplate restTemplate = this.restTemplateBuilder
                 .interceptors(restTemplateInterceptor)
+                .setConnectTimeout(this.inventoryConnectTimeout)
+                .setReadTimeout(this.inventoryReadTimeout)
                 .build();
         restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(inventoryServiceUrl));
         return restTemplate;
@@ -2,7 +2,10 @@ package com.example.orderservice.controllers;
 
 import com.example.orderservice.dtos.OrderCreateDto;
 import com.example.orderservice.dtos.OrderDto;
+import com.example.orderservice.dtos.OrderPageDto;
+import com.example.orderservice.services.IIdempotencyService;
 import com.example.orderservice.services.IOrderService;
+import com.example.orderservice.services.PendingOrderProcessor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,7 +13,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.net.URI;
 import java.util.List;
+import java.util.function.Supplier;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,27 +32,67 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Order")
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+    public static final String RESPOND_ASYNC = "respond-async";
+
     private final IOrderService orderService;
+    private final IIdempotencyService idempotencyService;
+    private final PendingOrderProcessor pendingOrderProcessor;
 
     @Operation(
         summary = "Create a new order",
+        description = "Retries sent with the same " + IDEMPOTENCY_KEY + " get the response of the first request, "
+                      + "without creating another order. With \"" + PREFER + ": " + RESPOND_ASYNC + "\" the order is "
+                      + "accepted as PENDING and finished in the background, poll the Location URL for its status.",
         responses = {
             @ApiResponse(responseCode = "200", content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDto.class))
             }),
+            @ApiResponse(responseCode = "202", description = "Accepted asynchronously", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDto.class))
+            }),
             @ApiResponse(responseCode = "400", content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
+            }),
+            @ApiResponse(responseCode = "409", description = "The first request with that key is still in progress", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
+            }),
+            @ApiResponse(responseCode = "422", description = "The key was used for a different request", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
+            }),
+            @ApiResponse(responseCode = "503", description = "Too many orders in progress", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
             })
         }
     )
     @PostMapping("users/me")
     public ResponseEntity<OrderDto> add(
         HttpServletRequest request,
+        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @RequestHeader(name = PREFER, required = false) String prefer,
         @Valid @RequestBody OrderCreateDto orderCreateDto
     ) {
         log.info("{} - {} - {}", request.getMethod(), request.getRequestURI(), orderCreateDto);
-        var orderDto = this.orderService.addOne(orderCreateDto);
-        return ResponseEntity.ok(orderDto);
+        var async = prefer != null && prefer.contains(RESPOND_ASYNC);
+
+        Supplier<OrderDto> placeOrder = async
+                                        ? () -> this.pendingOrderProcessor.accept(orderCreateDto)
+                                        : () -> this.orderService.addOne(orderCreateDto);
+
+        var orderDto = idempotencyKey == null
+                       ? placeOrder.get()
+                       : this.idempotencyService.execute(idempotencyKey, orderCreateDto, OrderDto.class, placeOrder);
+
+        if (!async) {
+            return ResponseEntity.ok(orderDto);
+        }
+
+        return ResponseEntity.accepted()
+                             .location(URI.create(request.getRequestURI() + "/" + orderDto.id()))
+                             .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                             .body(orderDto);
     }
 
     @Operation(
@@ -58,6 +103,9 @@ public class OrderController {
             }),
             @ApiResponse(responseCode = "400", content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
+            }),
+            @ApiResponse(responseCode = "404", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
             })
         }
     )
@@ -71,8 +119,32 @@ public class OrderController {
         return ResponseEntity.ok(orderDto);
     }
     
+    @Operation(
+        summary = "Get a page of orders for the current user, newest first",
+        responses = {
+            @ApiResponse(responseCode = "200", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderPageDto.class))
+            }),
+            @ApiResponse(responseCode = "400", content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))
+            })
+        }
+    )
+    @GetMapping("users/me/page")
+    public ResponseEntity<OrderPageDto> getPageForCurrentUser(
+        HttpServletRequest request,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        log.info("{} - {} - After: {}", request.getMethod(), request.getRequestURI(), after);
+        var orderPage = this.orderService.getPageForCurrentUser(after, limit);
+        return ResponseEntity.ok(orderPage);
+    }
+
     @Operation(
         summary = "Get all orders for the current user",
+        description = "Unbounded, prefer the paginated users/me/page.",
+        deprecated = true,
         responses = {
             @ApiResponse(responseCode = "200", content = {
                 @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, 
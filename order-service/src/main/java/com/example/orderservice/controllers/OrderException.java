@@ -10,6 +10,14 @@ public class OrderException
     public static final String ERROR_UPDATE_STOCK = "Error updating stock";
     public static final String ORDER_DOES_NOT_EXIST = "Order does not exist";
     public static final String ERROR_PUBLISH_ORDER_CREATED = "Error publishing event \"order-created\"";
+    public static final String INVENTORY_UNAVAILABLE = "Inventory is unavailable, retry later";
+    public static final String ORDERS_BUSY = "Too many orders in progress, retry later";
+    public static final String ORDER_INTERRUPTED = "Order processing was interrupted";
+    public static final String ERROR_PROCESSING_ORDER = "Error processing the order";
+    public static final String INVALID_CURSOR = "Invalid page cursor";
+    public static final String INVALID_IDEMPOTENCY_KEY = "The Idempotency-Key must have between 1 and 255 characters";
+    public static final String IDEMPOTENCY_KEY_REUSED = "The Idempotency-Key was already used for a different request";
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with the same Idempotency-Key is still in progress";
     public final HttpStatusCode statusCode;
 
     public OrderException(final String s) {
@@ -21,4 +29,12 @@ public class OrderException
         super();
         this.statusCode = statusCode;
     }
+
+    public OrderException(
+            final HttpStatusCode statusCode,
+            final String s
+    ) {
+        super(s);
+        this.statusCode = statusCode;
+    }
 }
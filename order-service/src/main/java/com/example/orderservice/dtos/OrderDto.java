@@ -1,9 +1,11 @@
 package com.example.orderservice.dtos;
 
+import com.example.orderservice.models.OrderStatus;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Builder;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -15,7 +17,10 @@ import java.util.List;
 public record OrderDto(
         Long id,
         Long userId,
+        OrderStatus status,
+        String failureReason,
         List<OrderProductDto> products,
+        BigDecimal total,
         LocalDateTime createdAt,
         LocalDateTime updatedAt
 )
@@ -0,0 +1,17 @@
+package com.example.orderservice.dtos;
+
+import lombok.Builder;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A keyset page of {@link OrderDto}, newest first. {@code nextCursor} is null on the last page
+ */
+@Builder
+public record OrderPageDto(
+        List<OrderDto> orders,
+        String nextCursor
+)
+        implements Serializable {
+}
@@ -14,7 +14,8 @@ import java.math.BigDecimal;
 public record OrderProductDto(
         Long productId,
         int quantity,
-        BigDecimal price
+        BigDecimal price,
+        BigDecimal subtotal
 )
         implements Serializable {
 }
\ No newline at end of file
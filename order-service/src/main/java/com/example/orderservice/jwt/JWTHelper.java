@@ -3,29 +3,26 @@ package com.example.orderservice.jwt;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.util.Base64;
 import java.util.Date;
 import java.util.Optional;
 
 @Component
+@RequiredArgsConstructor
 public class JWTHelper {
 
-    private static final String SECRET_KEY = "LSE1yJq4TJuIneLtE1ZjwkGITMQJrgiFFZr8vOTGCWc=";
     private static final String ISSUER = "auth-service";
     private static final String[] VALID_AUDIENCES = {"order-service", "e-commerce-store"};
     private static final String ROLE_USER = "USER";
 
-    private static final SecretKey key = new SecretKeySpec(
-            Base64.getDecoder().decode(SECRET_KEY), "HmacSHA256");
+    private final JwksKeyResolver jwksKeyResolver;
 
     public boolean validateToken(String token) {
         try {
             Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
+                    .setSigningKeyResolver(this.jwksKeyResolver)
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
@@ -75,7 +72,7 @@ public class JWTHelper {
     public String getUsernameFromToken(String token) {
         try {
             Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
+                    .setSigningKeyResolver(this.jwksKeyResolver)
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
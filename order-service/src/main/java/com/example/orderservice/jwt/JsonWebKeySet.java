@@ -0,0 +1,8 @@
+package com.example.orderservice.jwt;
+
+import java.util.List;
+
+public record JsonWebKeySet(
+        List<JsonWebKey> keys
+) {
+}
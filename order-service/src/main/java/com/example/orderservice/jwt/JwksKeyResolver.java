@@ -0,0 +1,127 @@
+package com.example.orderservice.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves token signing keys from a local copy of auth-service's JSON Web Key Set. The copy is reloaded on a
+ * fixed delay and whenever a token names a key it does not have, at most once per minimum refresh interval.
+ */
+@Slf4j
+@Component
+public class JwksKeyResolver
+        extends SigningKeyResolverAdapter {
+
+    private final RestTemplate restTemplate;
+    private final String jwksUri;
+    private final Duration minRefreshInterval;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private Instant refreshedAt = Instant.EPOCH;
+
+    public JwksKeyResolver(
+            final RestTemplateBuilder restTemplateBuilder,
+            @Value("${auth-service.url}")
+            final String authServiceUrl,
+            @Value("${api.jwt.jwks-min-refresh-interval:30s}")
+            final Duration minRefreshInterval
+    ) {
+        this.restTemplate = restTemplateBuilder.setConnectTimeout(Duration.ofSeconds(1))
+                                               .setReadTimeout(Duration.ofSeconds(2))
+                                               .build();
+        this.jwksUri = authServiceUrl + "/auth/.well-known/jwks.json";
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @Override
+    public Key resolveSigningKey(
+            final JwsHeader header,
+            final Claims claims
+    ) {
+        var keyId = header.getKeyId();
+
+        if (keyId == null) {
+            throw new JwtException("Token does not name its signing key");
+        }
+
+        var key = this.keys.get(keyId);
+        if (key == null) {
+            this.refresh();
+            key = this.keys.get(keyId);
+        }
+
+        if (key == null) {
+            throw new JwtException("Unknown signing key " + keyId);
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${api.jwt.jwks-refresh-interval-ms:600000}")
+    public synchronized void reload() {
+        try {
+            var jsonWebKeySet = this.restTemplate.getForObject(this.jwksUri, JsonWebKeySet.class);
+
+            if (jsonWebKeySet != null && jsonWebKeySet.keys() != null) {
+                this.update(jsonWebKeySet);
+            }
+        } catch (RestClientException e) {
+            log.warn("Error loading the signing keys from {}: {}", this.jwksUri, e.getMessage());
+        } finally {
+            this.refreshedAt = Instant.now();
+        }
+    }
+
+    private synchronized void refresh() {
+        if (this.refreshedAt.plus(this.minRefreshInterval).isAfter(Instant.now())) {
+            return;
+        }
+        this.reload();
+    }
+
+    private void update(final JsonWebKeySet jsonWebKeySet) {
+        var loaded = new HashMap<String, PublicKey>();
+
+        for (var jsonWebKey : jsonWebKeySet.keys()) {
+            if (!"RSA".equals(jsonWebKey.kty()) || jsonWebKey.kid() == null) {
+                continue;
+            }
+            try {
+                loaded.put(jsonWebKey.kid(), toPublicKey(jsonWebKey));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping unreadable signing key {}: {}", jsonWebKey.kid(), e.getMessage());
+            }
+        }
+
+        this.keys = Map.copyOf(loaded);
+    }
+
+    private static PublicKey toPublicKey(final JsonWebKey jsonWebKey) throws GeneralSecurityException {
+        var decoder = Base64.getUrlDecoder();
+        var modulus = new BigInteger(1, decoder.decode(jsonWebKey.n()));
+        var exponent = new BigInteger(1, decoder.decode(jsonWebKey.e()));
+
+        return KeyFactory.getInstance("RSA")
+                         .generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+}
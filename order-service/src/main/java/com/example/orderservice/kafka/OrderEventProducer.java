@@ -2,21 +2,26 @@ package com.example.orderservice.kafka;
 
 import com.example.orderservice.controllers.OrderException;
 import com.example.orderservice.dtos.OrderDto;
+import com.example.orderservice.models.OutboxEvent;
+import com.example.orderservice.repository.IOutboxEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+/**
+ * Writes events to the outbox in the caller's transaction, so they are published by {@link OutboxRelay}
+ * if and only if the order is committed, and the request never waits for the broker.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderEventProducer
         implements IOrderEventProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final IOutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
 
     @Value("${api.kafka.topics.order-created}")
@@ -26,17 +31,11 @@ public class OrderEventProducer
     public void sendOrderCreate(OrderDto message) {
         var data = this.serializeData(message);
 
-        var sendResultFuture = this.kafkaTemplate.send(
-                this.topicOrderCreated,
-                message.id().toString(),
-                data
-        );
-
-        sendResultFuture.thenAccept(sendResult -> {
-            if (sendResult == null) {
-                throw new OrderException(OrderException.ERROR_PUBLISH_ORDER_CREATED);
-            }
-        });
+        this.outboxEventRepository.save(OutboxEvent.builder()
+                                                   .topic(this.topicOrderCreated)
+                                                   .messageKey(message.id().toString())
+                                                   .payload(data)
+                                                   .build());
     }
 
     private String serializeData(final OrderDto message) {
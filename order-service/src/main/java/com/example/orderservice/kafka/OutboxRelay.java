@@ -0,0 +1,158 @@
+package com.example.orderservice.kafka;
+
+import com.example.orderservice.models.OutboxEvent;
+import com.example.orderservice.repository.IOutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the outbox to Kafka in batches: a batch is claimed for {@code claim-timeout} in a short transaction,
+ * sent after the commit without waiting between records, then only the events the broker acknowledged are marked sent.
+ * No lock or connection is held while the broker answers. Anything else is released and retried on the next run,
+ * or by any relay once the claim expired, so delivery is at least once and consumers should dedupe by key.
+ * <p>
+ * The whole batch is waited for at most {@code send-timeout}, and the producer gives up on a record after
+ * {@code delivery.timeout.ms}; the claim must outlast both, so it can't expire while the batch is still in flight.
+ * Marking sent or releasing only touches rows still under this relay's claim.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final IOutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${api.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${api.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Value("${api.outbox.claim-timeout:1m}")
+    private Duration claimTimeout;
+
+    @Value("${spring.kafka.producer.properties.delivery.timeout.ms:120000}")
+    private long deliveryTimeoutMs;
+
+    @Value("${api.outbox.retention:7d}")
+    private Duration retention;
+
+    @PostConstruct
+    public void checkTimeouts() {
+        var inFlight = Duration.ofMillis(Math.max(this.deliveryTimeoutMs, this.sendTimeout.toMillis()));
+
+        if (this.claimTimeout.compareTo(inFlight) <= 0) {
+            throw new IllegalStateException("api.outbox.claim-timeout " + this.claimTimeout + " must be longer than "
+                                            + "send-timeout and the producer's delivery.timeout.ms, " + inFlight);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.outbox.relay-interval-ms:200}")
+    public void relay() {
+        Integer relayed;
+
+        do {
+            relayed = this.relayBatch();
+        } while (relayed == this.batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${api.outbox.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        var deleted = this.transactionTemplate.execute(status -> this.outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(this.retention)));
+
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} sent outbox events", deleted);
+        }
+    }
+
+    /**
+     * @return How many events were acknowledged, less than a full batch when the outbox is drained or a send failed.
+     */
+    private int relayBatch() {
+        // Stored with millisecond precision, so it reads back equal
+        var claimedUntil = LocalDateTime.now()
+                                        .plus(this.claimTimeout)
+                                        .truncatedTo(ChronoUnit.MILLIS);
+        var events = this.transactionTemplate.execute(status -> this.claimBatch(claimedUntil));
+
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        var sends = new ArrayList<CompletableFuture<SendResult<String, String>>>(events.size());
+        for (var event : events) {
+            sends.add(this.kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+        }
+        this.kafkaTemplate.flush();
+
+        var deadline = System.nanoTime() + this.sendTimeout.toNanos();
+        var sentIds = new ArrayList<Long>(events.size());
+        var failedIds = new ArrayList<Long>();
+        for (int i = 0; i < events.size(); i++) {
+            if (this.isAcknowledged(events.get(i), sends.get(i), deadline)) {
+                sentIds.add(events.get(i).getId());
+            } else {
+                failedIds.add(events.get(i).getId());
+            }
+        }
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                this.outboxEventRepository.markSent(sentIds, claimedUntil, LocalDateTime.now());
+            }
+            if (!failedIds.isEmpty()) {
+                this.outboxEventRepository.release(failedIds, claimedUntil);
+            }
+        });
+
+        return sentIds.size();
+    }
+
+    /**
+     * Claims the oldest unsent events, to be called in a transaction. They are sent after it commits.
+     */
+    private List<OutboxEvent> claimBatch(final LocalDateTime claimedUntil) {
+        var events = this.outboxEventRepository.findClaimableForUpdate(LocalDateTime.now(), this.batchSize);
+        events.forEach(event -> event.setClaimedUntil(claimedUntil));
+        return events;
+    }
+
+    /**
+     * Waits for the send until the deadline shared by the whole batch.
+     */
+    private boolean isAcknowledged(
+            final OutboxEvent event,
+            final CompletableFuture<SendResult<String, String>> send,
+            final long deadline
+    ) {
+        try {
+            send.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Error publishing outbox event {} to {}: {}", event.getId(), event.getTopic(), e.getMessage());
+            return false;
+        }
+    }
+}
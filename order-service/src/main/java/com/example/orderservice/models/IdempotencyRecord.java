@@ -0,0 +1,71 @@
+package com.example.orderservice.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The outcome of a request sent with an Idempotency-Key, kept until {@code expiresAt} so retries of the
+ * same request get the stored response instead of running it again.
+ */
+@Builder
+@Getter
+@Setter
+@Entity(name = "idempotency_record")
+@Table(indexes = @Index(columnList = "expires_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    /**
+     * The key scoped to the user that sent it.
+     */
+    @Id
+    private String id;
+
+    /**
+     * SHA-256 of the request body, to reject a key reused for a different request.
+     */
+    @NotNull
+    private String requestHash;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @ToString.Exclude
+    @Column(columnDefinition = "text")
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        var record = (IdempotencyRecord) o;
+        return this.id.equals(record.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+}
@@ -2,9 +2,11 @@ package com.example.orderservice.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -13,13 +15,26 @@ import java.util.Objects;
 @Getter
 @Setter
 @Entity(name = "orders")
+@Table(indexes = {
+        @Index(columnList = "user_id, created_at, id"),
+        @Index(columnList = "created_at, total")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
 public class Order {
 
+    /**
+     * Ids taken from the sequences per round trip, in line with {@code hibernate.jdbc.batch_size}.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+                    generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq",
+                       sequenceName = "orders_seq",
+                       allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     public Long getId() {
@@ -46,6 +61,24 @@ public class Order {
         this.products = products;
     }
 
+    /**
+     * Sum of the line subtotals, set when the order is confirmed.
+     */
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'CONFIRMED'")
+    private OrderStatus status;
+
+    private String failureReason;
+
+    /**
+     * The products of an order accepted asynchronously, as JSON, until its worker confirms or rejects it.
+     */
+    @ToString.Exclude
+    @Column(columnDefinition = "text")
+    private String requestedProducts;
+
     @CreationTimestamp
     @Column(nullable = false,
             updatable = false)
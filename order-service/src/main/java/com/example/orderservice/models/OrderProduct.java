@@ -18,7 +18,11 @@ import java.util.Objects;
 public class OrderProduct {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE,
+                    generator = "order_products_seq")
+    @SequenceGenerator(name = "order_products_seq",
+                       sequenceName = "order_products_seq",
+                       allocationSize = Order.ID_ALLOCATION_SIZE)
     private Long id;
 
     public Long getId() {
@@ -40,6 +44,11 @@ public class OrderProduct {
     @NotNull
     private BigDecimal price;
 
+    /**
+     * {@code price * quantity}, computed once when the order is created.
+     */
+    private BigDecimal subtotal;
+
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(nullable = false)
     private Order order;
@@ -0,0 +1,12 @@
+package com.example.orderservice.models;
+
+/**
+ * Orders placed synchronously are created {@code CONFIRMED}. Orders accepted asynchronously start
+ * {@code PENDING}, are {@code PROCESSING} while a worker takes their stock, and end {@code CONFIRMED} or {@code REJECTED}.
+ */
+public enum OrderStatus {
+    PENDING,
+    PROCESSING,
+    CONFIRMED,
+    REJECTED
+}
@@ -0,0 +1,66 @@
+package com.example.orderservice.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * An event written in the same transaction as the change it describes and published to Kafka
+ * afterwards by the outbox relay. {@code sentAt} stays null until the broker acknowledges it,
+ * {@code claimedUntil} keeps other relays off it while it is being sent.
+ */
+@Builder
+@Getter
+@Setter
+@Entity(name = "outbox_event")
+@Table(indexes = @Index(columnList = "sent_at, id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    private String topic;
+
+    @NotNull
+    private String messageKey;
+
+    @NotNull
+    @ToString.Exclude
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false,
+            updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    private LocalDateTime claimedUntil;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        var event = (OutboxEvent) o;
+        return this.id.equals(event.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.orderservice.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Log of the stock taken from inventory for an order. Each step is committed on its own, so the stock of
+ * an order that failed, or whose instance died midway, can still be given back.
+ */
+@Builder
+@Getter
+@Setter
+@Entity(name = "stock_saga")
+@Table(indexes = {
+        @Index(columnList = "status, next_attempt_at"),
+        @Index(columnList = "status, updated_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class StockSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String correlationId;
+
+    /**
+     * The products and quantities taken, as JSON.
+     */
+    @NotNull
+    @Column(columnDefinition = "text")
+    private String products;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private StockSagaStatus status;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(nullable = false,
+            updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        var saga = (StockSaga) o;
+        return this.id.equals(saga.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.orderservice.models;
+
+/**
+ * Steps of a {@link StockSaga}. {@code COMPLETED}, {@code COMPENSATED} and {@code ABORTED} are final.
+ */
+public enum StockSagaStatus {
+    /**
+     * The decrease-stock call is about to be made.
+     */
+    STARTED,
+    /**
+     * Inventory took the stock, the order is not committed yet.
+     */
+    STOCK_TAKEN,
+    /**
+     * The order was committed with the stock.
+     */
+    COMPLETED,
+    /**
+     * The order failed, the stock has to be given back, if inventory took it.
+     */
+    COMPENSATING,
+    /**
+     * The stock was given back.
+     */
+    COMPENSATED,
+    /**
+     * Inventory did not take the stock, or gave it back itself.
+     */
+    ABORTED
+}
@@ -0,0 +1,58 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IIdempotencyRecordRepository
+        extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims the key for a new request. An existing record is only taken over once it expired.
+     *
+     * @return 1 if the key was claimed, 0 if another request owns it.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_record (id, request_hash, status, created_at, expires_at)
+            VALUES (:id, :requestHash, 'IN_PROGRESS', :now, :expiresAt)
+            ON CONFLICT (id) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS', response = NULL,
+                created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_record.expires_at < :now
+            """,
+           nativeQuery = true)
+    int claim(
+            @Param("id") String id,
+            @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE idempotency_record r SET r.status = :status, r.response = :response "
+           + "WHERE r.id = :id AND r.status = com.example.orderservice.models.IdempotencyRecord.Status.IN_PROGRESS")
+    int complete(
+            @Param("id") String id,
+            @Param("status") IdempotencyRecord.Status status,
+            @Param("response") String response
+    );
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM idempotency_record r "
+           + "WHERE r.id = :id AND r.status = com.example.orderservice.models.IdempotencyRecord.Status.IN_PROGRESS")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM idempotency_record r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,12 +1,81 @@
 package com.example.orderservice.repository;
 
 import com.example.orderservice.models.Order;
+import com.example.orderservice.models.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface IOrderRepository
         extends JpaRepository<Order, Long> {
-    
+
+    @EntityGraph(attributePaths = "products")
     List<Order> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "products")
+    Optional<Order> findByIdAndUserId(
+            Long id,
+            Long userId
+    );
+
+    /**
+     * First page of the user's orders, newest first. Only ids, the orders are loaded with {@link #findWithProductsByIdIn(Collection)}.
+     */
+    @Query("SELECT o.id FROM orders o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIds(
+            @Param("userId") Long userId,
+            Pageable pageable
+    );
+
+    /**
+     * Page of the user's orders older than the cursor, newest first.
+     */
+    @Query("""
+            SELECT o.id FROM orders o
+            WHERE o.userId = :userId
+              AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id))
+            ORDER BY o.createdAt DESC, o.id DESC
+            """)
+    List<Long> findPageIdsBefore(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query("SELECT DISTINCT o FROM orders o LEFT JOIN FETCH o.products WHERE o.id IN :ids")
+    List<Order> findWithProductsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the order from {@code from} to {@code to}.
+     *
+     * @return 1 if the order was in {@code from}, 0 if another worker already moved it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE orders o SET o.status = :to, o.failureReason = :failureReason, o.updatedAt = :now "
+           + "WHERE o.id = :id AND o.status = :from")
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to,
+            @Param("failureReason") String failureReason,
+            @Param("now") LocalDateTime now
+    );
+
+    @Query("SELECT o.id FROM orders o WHERE o.status = :status AND o.updatedAt < :before ORDER BY o.id")
+    List<Long> findIdsByStatusUpdatedBefore(
+            @Param("status") OrderStatus status,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,52 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.models.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IOutboxEventRepository
+        extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest unsent events no other relay has claimed. Rows locked by another replica's relay are
+     * skipped, not waited for.
+     */
+    @Query(value = "SELECT * FROM outbox_event WHERE sent_at IS NULL AND (claimed_until IS NULL OR claimed_until <= :now) "
+                   + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> findClaimableForUpdate(
+            @Param("now") LocalDateTime now,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Marks the events sent, unless their claim expired and another relay claimed them since.
+     */
+    @Modifying
+    @Query("UPDATE outbox_event e SET e.sentAt = :sentAt WHERE e.id IN :ids AND e.claimedUntil = :claimedUntil")
+    int markSent(
+            @Param("ids") Collection<Long> ids,
+            @Param("claimedUntil") LocalDateTime claimedUntil,
+            @Param("sentAt") LocalDateTime sentAt
+    );
+
+    /**
+     * Releases the claim on the events, unless their claim expired and another relay claimed them since.
+     */
+    @Modifying
+    @Query("UPDATE outbox_event e SET e.claimedUntil = NULL WHERE e.id IN :ids AND e.claimedUntil = :claimedUntil")
+    int release(
+            @Param("ids") Collection<Long> ids,
+            @Param("claimedUntil") LocalDateTime claimedUntil
+    );
+
+    @Modifying
+    @Query("DELETE FROM outbox_event e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
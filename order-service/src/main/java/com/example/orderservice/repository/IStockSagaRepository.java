@@ -0,0 +1,95 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.models.StockSaga;
+import com.example.orderservice.models.StockSagaStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IStockSagaRepository
+        extends JpaRepository<StockSaga, Long> {
+
+    /**
+     * Moves the saga to {@code status} if it is still in one of the {@code from} statuses.
+     *
+     * @return 1 if moved, 0 if another step, like the recovery of stale sagas, moved it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_saga s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.id = :id AND s.status IN :from")
+    int updateStatus(
+            @Param("id") Long id,
+            @Param("from") Collection<StockSagaStatus> from,
+            @Param("status") StockSagaStatus status,
+            @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_saga s SET s.status = com.example.orderservice.models.StockSagaStatus.COMPENSATING, "
+           + "s.nextAttemptAt = :now, s.updatedAt = :now "
+           + "WHERE s.id = :id AND s.status IN (com.example.orderservice.models.StockSagaStatus.STARTED, "
+           + "com.example.orderservice.models.StockSagaStatus.STOCK_TAKEN)")
+    int startCompensation(
+            @Param("id") Long id,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Claims the saga until {@code leaseUntil} if it is due for a compensation attempt.
+     *
+     * @return 1 if claimed, 0 if it is not due or another compensation claimed it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_saga s SET s.nextAttemptAt = :leaseUntil "
+           + "WHERE s.id = :id AND s.status = com.example.orderservice.models.StockSagaStatus.COMPENSATING "
+           + "AND s.nextAttemptAt <= :now")
+    int claim(
+            @Param("id") Long id,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE stock_saga s SET s.attempts = :attempts, s.nextAttemptAt = :nextAttemptAt, s.updatedAt = :now "
+           + "WHERE s.id = :id AND s.status = com.example.orderservice.models.StockSagaStatus.COMPENSATING")
+    int scheduleRetry(
+            @Param("id") Long id,
+            @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("now") LocalDateTime now
+    );
+
+    @Query(value = "SELECT * FROM stock_saga WHERE status = 'COMPENSATING' AND next_attempt_at <= :now "
+                   + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<StockSaga> findDueForUpdate(
+            @Param("now") LocalDateTime now,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "SELECT * FROM stock_saga WHERE status IN (:statuses) AND updated_at < :before "
+                   + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<StockSaga> findStaleForUpdate(
+            @Param("statuses") Collection<String> statuses,
+            @Param("before") LocalDateTime before,
+            @Param("limit") int limit
+    );
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM stock_saga s WHERE s.status IN :statuses AND s.updatedAt < :before")
+    int deleteBefore(
+            @Param("statuses") Collection<StockSagaStatus> statuses,
+            @Param("before") LocalDateTime before
+    );
+}
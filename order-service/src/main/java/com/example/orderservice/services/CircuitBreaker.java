@@ -0,0 +1,146 @@
+package com.example.orderservice.services;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. It opens when the failure rate over the last {@code windowSize} calls reaches
+ * the threshold, rejects every call while open, then lets {@code halfOpenCalls} trial calls through:
+ * all of them succeeding closes it again, any of them failing opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<State, State> onTransition;
+
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param windowSize           How many of the latest calls the failure rate is computed over.
+     * @param minimumCalls         Calls to record before the failure rate is considered.
+     * @param failureRateThreshold Failure rate, in percent, that opens the breaker.
+     * @param openNanos            How long the breaker stays open before trial calls are let through.
+     * @param halfOpenCalls        Trial calls that must succeed to close the breaker.
+     * @param nanoClock            Source of {@link System#nanoTime()}-like timestamps.
+     * @param onTransition         Called with the previous and the new state on every change, under the breaker's lock.
+     */
+    public CircuitBreaker(
+            final int windowSize,
+            final int minimumCalls,
+            final int failureRateThreshold,
+            final long openNanos,
+            final int halfOpenCalls,
+            final LongSupplier nanoClock,
+            final BiConsumer<State, State> onTransition
+    ) {
+        this.failed = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * @return Whether the call may go ahead. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (this.state == State.OPEN) {
+            if (this.nanoClock.getAsLong() - this.openedAt < this.openNanos) {
+                return false;
+            }
+            this.transitionTo(State.HALF_OPEN);
+        }
+
+        if (this.state == State.HALF_OPEN) {
+            if (this.halfOpenStarted >= this.halfOpenCalls) {
+                return false;
+            }
+            this.halfOpenStarted++;
+        }
+
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (this.state == State.HALF_OPEN) {
+            if (++this.halfOpenSucceeded >= this.halfOpenCalls) {
+                this.transitionTo(State.CLOSED);
+            }
+        } else if (this.state == State.CLOSED) {
+            this.record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (this.state == State.HALF_OPEN) {
+            this.transitionTo(State.OPEN);
+        } else if (this.state == State.CLOSED) {
+            this.record(true);
+        }
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    private void record(final boolean failure) {
+        if (this.recorded == this.failed.length) {
+            if (this.failed[this.next]) {
+                this.failures--;
+            }
+        } else {
+            this.recorded++;
+        }
+
+        this.failed[this.next] = failure;
+        if (failure) {
+            this.failures++;
+        }
+        this.next = (this.next + 1) % this.failed.length;
+
+        if (this.recorded >= this.minimumCalls && this.failures * 100 >= this.failureRateThreshold * this.recorded) {
+            this.transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(final State newState) {
+        var previous = this.state;
+        this.state = newState;
+
+        switch (newState) {
+            case OPEN -> this.openedAt = this.nanoClock.getAsLong();
+            case HALF_OPEN -> {
+                this.halfOpenStarted = 0;
+                this.halfOpenSucceeded = 0;
+            }
+            case CLOSED -> {
+                this.next = 0;
+                this.recorded = 0;
+                this.failures = 0;
+            }
+        }
+
+        this.onTransition.accept(previous, newState);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.orderservice.services;
+
+import java.util.function.Supplier;
+
+public interface IIdempotencyService {
+
+    /**
+     * Runs the action once per Idempotency-Key and user. Retries of the same request get the stored response
+     * without running the action again, until the key expires. If the action fails the key is released,
+     * so the request can be retried. The action should store its response with {@link #recordResponse(Object)}.
+     *
+     * @param key          The Idempotency-Key sent by the client.
+     * @param request      The request body, a key reused for a different body is rejected.
+     * @param responseType The type the stored response is read back as.
+     * @param action       Runs the request.
+     * @return The response of the first run of the request.
+     * @throws com.example.orderservice.controllers.OrderException If the key is invalid, reused for a different
+     *                                                             request, or its first request is still running.
+     */
+    <T> T execute(
+            String key,
+            Object request,
+            Class<T> responseType,
+            Supplier<T> action
+    );
+
+    /**
+     * Stores the response for the key claimed by the request running on this thread, to be called in the
+     * transaction that commits the effect of the action. Does nothing outside {@link #execute}.
+     *
+     * @param response The response the action is about to return.
+     * @throws IllegalStateException If the key is no longer claimed, which rolls the transaction back.
+     */
+    void recordResponse(Object response);
+}
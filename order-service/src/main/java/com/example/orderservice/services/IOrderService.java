@@ -2,13 +2,46 @@ package com.example.orderservice.services;
 
 import com.example.orderservice.dtos.OrderCreateDto;
 import com.example.orderservice.dtos.OrderDto;
+import com.example.orderservice.dtos.OrderPageDto;
+import com.example.orderservice.models.OrderStatus;
 
 import java.util.List;
 
 public interface IOrderService {
     OrderDto addOne(OrderCreateDto orderCreateDto);
 
+    /**
+     * Saves the order as {@link OrderStatus#PENDING}, without taking stock. {@link #completePending(Long)} finishes it.
+     */
+    OrderDto acceptOne(OrderCreateDto orderCreateDto);
+
+    /**
+     * Takes the stock of a pending order and confirms it, or rejects it. Does nothing if the order
+     * is not pending anymore, so running it twice for the same order is harmless.
+     */
+    void completePending(Long orderId);
+
+    /**
+     * Rejects the order if it is still in {@code from}.
+     */
+    void reject(
+            Long orderId,
+            OrderStatus from,
+            String reason
+    );
+
     OrderDto getOne(Long orderId);
     
     List<OrderDto> getAllForCurrentUser();
+
+    /**
+     * Gets a page of the current user's orders, newest first.
+     *
+     * @param after The {@code nextCursor} of the previous page, null for the first page.
+     * @param limit The maximum number of orders to return.
+     */
+    OrderPageDto getPageForCurrentUser(
+            String after,
+            int limit
+    );
 }
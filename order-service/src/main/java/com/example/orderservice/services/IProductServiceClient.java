@@ -2,16 +2,25 @@ package com.example.orderservice.services;
 
 
 import com.example.orderservice.dtos.OrderProductCreateDto;
-import com.example.orderservice.dtos.ProductDto;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 public interface IProductServiceClient {
-    Optional<ProductDto> getProductById(Long id);
+    /**
+     * Gives back the stock taken by {@link #decreaseStockAndPrice(Long, List)} for an order that was not created.
+     * Inventory gives it back at most once per saga, and only if the saga took it, so it is safe to retry
+     * and to call when it is unknown whether the stock was taken.
+     */
+    boolean restoreStock(Long sagaId, List<OrderProductCreateDto> ids);
 
-    Map<Long, ProductDto> getProductById(List<Long> ids);
-
-    boolean updateStock(List<OrderProductCreateDto> ids);
+    /**
+     * Decreases the stock of the products and gets their prices in a single inventory call, bounded by the
+     * call deadline. A call that succeeds after the deadline still took the stock, the saga has to give it back.
+     *
+     * @return The price of every product, by id.
+     * @throws com.example.orderservice.controllers.OrderException If there is not enough stock or the call fails.
+     */
+    Map<Long, BigDecimal> decreaseStockAndPrice(Long sagaId, List<OrderProductCreateDto> ids);
 }
@@ -0,0 +1,43 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.dtos.OrderProductCreateDto;
+
+import java.util.List;
+
+/**
+ * Records the steps of taking stock for an order, see {@link com.example.orderservice.models.StockSaga}.
+ * Every step but {@link #complete(Long)} commits on its own.
+ */
+public interface IStockSagaService {
+
+    /**
+     * @return The id of the new saga, before the stock is taken.
+     */
+    Long begin(List<OrderProductCreateDto> products);
+
+    /**
+     * @throws com.example.orderservice.controllers.OrderException If the saga is not STARTED anymore,
+     *                                                             it was recovered as stale meanwhile.
+     */
+    void stockTaken(Long sagaId);
+
+    /**
+     * Inventory did not take the stock, nothing to give back.
+     */
+    void abort(Long sagaId);
+
+    /**
+     * Must run in the transaction that commits the order.
+     *
+     * @throws com.example.orderservice.controllers.OrderException If the saga is not STOCK_TAKEN anymore,
+     *                                                             its stock is being given back, which rolls
+     *                                                             the order back.
+     */
+    void complete(Long sagaId);
+
+    /**
+     * Gives the stock back in the background, retrying until inventory accepts it. Also for a saga whose
+     * decrease-stock call failed without an answer: inventory gives back only what the saga took.
+     */
+    void compensate(Long sagaId);
+}
@@ -0,0 +1,257 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.config.ContextHolder;
+import com.example.orderservice.controllers.OrderException;
+import com.example.orderservice.models.IdempotencyRecord;
+import com.example.orderservice.repository.IIdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key store backed by the idempotency_record table, with a local cache of completed responses
+ * in front of it so most retries don't reach the database.
+ * <p>
+ * A claimed key is only handed out again once it is released or expired, never because its request seems slow:
+ * the action may have run. The action stores its response through {@link #recordResponse(Object)} in the
+ * transaction that commits its effect, so a committed order always has its completed record.
+ */
+@Slf4j
+@Service
+public class IdempotencyService
+        implements IIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int COMPLETE_ATTEMPTS = 3;
+
+    /**
+     * The key claimed by the request running on the current thread.
+     */
+    private static final ThreadLocal<Claim> CLAIM = new ThreadLocal<>();
+
+    private record StoredResponse(
+            String requestHash,
+            String response
+    ) {
+    }
+
+    private static final class Claim {
+
+        private final String id;
+        private final String requestHash;
+        private StoredResponse stored;
+
+        private Claim(
+                final String id,
+                final String requestHash
+        ) {
+            this.id = id;
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IIdempotencyRecordRepository idempotencyRecordRepository;
+    private final ContextHolder contextHolder;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotencyService(
+            final IIdempotencyRecordRepository idempotencyRecordRepository,
+            final ContextHolder contextHolder,
+            final ObjectMapper objectMapper,
+            final MeterRegistry meterRegistry,
+            @Value("${api.idempotency.ttl:24h}")
+            final Duration ttl,
+            @Value("${api.idempotency.cache.maximum-size:10000}")
+            final long cacheMaximumSize,
+            @Value("${api.idempotency.cache.ttl:10m}")
+            final Duration cacheTtl
+    ) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.contextHolder = contextHolder;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(cacheMaximumSize)
+                             .expireAfterWrite(cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl)
+                             .recordStats()
+                             .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "idempotency");
+    }
+
+    @Override
+    public <T> T execute(
+            final String key,
+            final Object request,
+            final Class<T> responseType,
+            final Supplier<T> action
+    ) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new OrderException(OrderException.INVALID_IDEMPOTENCY_KEY);
+        }
+
+        var id = this.contextHolder.getUserId() + ":" + key;
+        var requestHash = this.hash(request);
+
+        var cached = this.cache.getIfPresent(id);
+        if (cached != null) {
+            return this.replay(cached, requestHash, responseType);
+        }
+
+        var now = LocalDateTime.now();
+        var claimed = this.idempotencyRecordRepository.claim(id, requestHash, now, now.plus(this.ttl));
+
+        if (claimed == 0) {
+            return this.replay(id, requestHash, responseType);
+        }
+
+        var claim = new Claim(id, requestHash);
+        CLAIM.set(claim);
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            this.release(id);
+            throw e;
+        } finally {
+            CLAIM.remove();
+        }
+
+        var stored = claim.stored != null ? claim.stored : this.complete(id, requestHash, response);
+        this.cache.put(id, stored);
+
+        return response;
+    }
+
+    @Override
+    public void recordResponse(final Object response) {
+        var claim = CLAIM.get();
+        if (claim == null) {
+            return;
+        }
+
+        var stored = new StoredResponse(claim.requestHash, this.serialize(response));
+        if (this.idempotencyRecordRepository.complete(claim.id, IdempotencyRecord.Status.COMPLETED, stored.response()) == 0) {
+            throw new IllegalStateException("Idempotency-Key " + claim.id + " is no longer claimed");
+        }
+        claim.stored = stored;
+    }
+
+    @Scheduled(fixedDelayString = "${api.idempotency.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        var deleted = this.idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency records", deleted);
+        }
+    }
+
+    private <T> T replay(
+            final String id,
+            final String requestHash,
+            final Class<T> responseType
+    ) {
+        var record = this.idempotencyRecordRepository.findById(id)
+                                                     .orElseThrow(() -> new OrderException(HttpStatus.CONFLICT, OrderException.IDEMPOTENCY_KEY_IN_PROGRESS));
+
+        if (record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS) {
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new OrderException(HttpStatus.UNPROCESSABLE_ENTITY, OrderException.IDEMPOTENCY_KEY_REUSED);
+            }
+            throw new OrderException(HttpStatus.CONFLICT, OrderException.IDEMPOTENCY_KEY_IN_PROGRESS);
+        }
+
+        var stored = new StoredResponse(record.getRequestHash(), record.getResponse());
+        this.cache.put(id, stored);
+
+        return this.replay(stored, requestHash, responseType);
+    }
+
+    private <T> T replay(
+            final StoredResponse stored,
+            final String requestHash,
+            final Class<T> responseType
+    ) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new OrderException(HttpStatus.UNPROCESSABLE_ENTITY, OrderException.IDEMPOTENCY_KEY_REUSED);
+        }
+
+        try {
+            return this.objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response", e);
+        }
+    }
+
+    /**
+     * Stores the response of an action that did not record it itself. The key stays claimed if that keeps failing,
+     * so retries get a conflict until it expires rather than running the action again.
+     */
+    private StoredResponse complete(
+            final String id,
+            final String requestHash,
+            final Object response
+    ) {
+        var stored = new StoredResponse(requestHash, this.serialize(response));
+
+        for (int attempt = 1; attempt <= COMPLETE_ATTEMPTS; attempt++) {
+            try {
+                this.idempotencyRecordRepository.complete(id, IdempotencyRecord.Status.COMPLETED, stored.response());
+                return stored;
+            } catch (RuntimeException e) {
+                // The request already succeeded, failing it now would make the client retry it
+                log.error("Error storing the response for Idempotency-Key {}, attempt {}: {}", id, attempt, e.getMessage());
+            }
+        }
+
+        return stored;
+    }
+
+    /**
+     * Frees the key of a failed action. A key already completed, by an action that committed before failing, is kept.
+     */
+    private void release(final String id) {
+        try {
+            this.idempotencyRecordRepository.release(id);
+        } catch (RuntimeException e) {
+            log.error("Error releasing Idempotency-Key {}: {}", id, e.getMessage());
+        }
+    }
+
+    private String serialize(final Object value) {
+        try {
+            return this.objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unserializable idempotent response", e);
+        }
+    }
+
+    private String hash(final Object request) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                                      .digest(this.serialize(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.controllers.OrderException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Resilience around every call to inventory-service: a bulkhead caps the concurrent calls, and a
+ * {@link CircuitBreaker} fails calls fast while inventory is failing. Idempotent reads can be hedged,
+ * sending a second attempt when the first is slower than {@code hedging.delay}.
+ * <p>
+ * Client errors (4xx) are answers from a healthy inventory and don't count as failures.
+ * Every call is timed under {@code inventory.client.calls} by operation and outcome, and every breaker state
+ * change is counted under {@code inventory.client.circuit.transitions}.
+ */
+@Slf4j
+@Component
+public class InventoryCallGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadMaxWait;
+    private final boolean hedgingEnabled;
+    private final Duration hedgingDelay;
+    private final Executor inventoryCallExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public InventoryCallGuard(
+            final MeterRegistry meterRegistry,
+            @Qualifier("inventoryCallExecutor")
+            final Executor inventoryCallExecutor,
+            @Value("${api.inventory-calls.bulkhead.max-concurrent:64}")
+            final int bulkheadMaxConcurrent,
+            @Value("${api.inventory-calls.bulkhead.max-wait:50ms}")
+            final Duration bulkheadMaxWait,
+            @Value("${api.inventory-calls.circuit-breaker.window-size:50}")
+            final int windowSize,
+            @Value("${api.inventory-calls.circuit-breaker.minimum-calls:20}")
+            final int minimumCalls,
+            @Value("${api.inventory-calls.circuit-breaker.failure-rate-threshold:50}")
+            final int failureRateThreshold,
+            @Value("${api.inventory-calls.circuit-breaker.open-duration:10s}")
+            final Duration openDuration,
+            @Value("${api.inventory-calls.circuit-breaker.half-open-calls:5}")
+            final int halfOpenCalls,
+            @Value("${api.inventory-calls.hedging.enabled:false}")
+            final boolean hedgingEnabled,
+            @Value("${api.inventory-calls.hedging.delay:150ms}")
+            final Duration hedgingDelay
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.inventoryCallExecutor = inventoryCallExecutor;
+        this.bulkhead = new Semaphore(bulkheadMaxConcurrent);
+        this.bulkheadMaxWait = bulkheadMaxWait;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingDelay = hedgingDelay;
+        this.circuitBreaker = new CircuitBreaker(
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                openDuration.toNanos(),
+                halfOpenCalls,
+                System::nanoTime,
+                this::onTransition
+        );
+
+        Gauge.builder("inventory.client.circuit.state", this.circuitBreaker, breaker -> breaker.getState().ordinal())
+             .description("0 closed, 1 open, 2 half open")
+             .register(meterRegistry);
+        Gauge.builder("inventory.client.bulkhead.available", this.bulkhead, Semaphore::availablePermits)
+             .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call unless the bulkhead is full or the breaker is open.
+     *
+     * @throws OrderException With 503 when the call is rejected without reaching inventory.
+     */
+    public <T> T call(
+            final String operation,
+            final Supplier<T> call
+    ) {
+        if (!this.acquireBulkhead()) {
+            this.record(operation, "bulkhead_full", 0);
+            throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, OrderException.INVENTORY_UNAVAILABLE);
+        }
+
+        try {
+            if (!this.circuitBreaker.tryAcquirePermission()) {
+                this.record(operation, "circuit_open", 0);
+                throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, OrderException.INVENTORY_UNAVAILABLE);
+            }
+
+            var startedAt = System.nanoTime();
+            try {
+                var result = call.get();
+                this.circuitBreaker.onSuccess();
+                this.record(operation, "success", System.nanoTime() - startedAt);
+                return result;
+            } catch (HttpClientErrorException e) {
+                this.circuitBreaker.onSuccess();
+                this.record(operation, "client_error", System.nanoTime() - startedAt);
+                throw e;
+            } catch (RuntimeException e) {
+                this.circuitBreaker.onFailure();
+                this.record(operation, "failure", System.nanoTime() - startedAt);
+                throw e;
+            }
+        } finally {
+            this.bulkhead.release();
+        }
+    }
+
+    /**
+     * Like {@link #call(String, Supplier)}, and if hedging is enabled and the call has not answered within the delay,
+     * sends a second attempt and returns whichever succeeds first. Only for idempotent reads.
+     */
+    public <T> T hedgedCall(
+            final String operation,
+            final Supplier<T> call
+    ) {
+        if (!this.hedgingEnabled) {
+            return this.call(operation, call);
+        }
+
+        var first = CompletableFuture.supplyAsync(() -> this.call(operation, call), this.inventoryCallExecutor);
+
+        try {
+            return first.get(this.hedgingDelay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            Counter.builder("inventory.client.hedges")
+                   .tag("operation", operation)
+                   .register(this.meterRegistry)
+                   .increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, OrderException.INVENTORY_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        var second = CompletableFuture.supplyAsync(() -> this.call(operation, call), this.inventoryCallExecutor);
+        var winner = new CompletableFuture<T>();
+        var failed = new AtomicInteger();
+
+        for (var attempt : List.of(first, second)) {
+            attempt.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(result);
+                } else if (failed.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+
+        try {
+            return winner.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return this.bulkhead.tryAcquire(this.bulkheadMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(
+            final String operation,
+            final String outcome,
+            final long nanos
+    ) {
+        Timer.builder("inventory.client.calls")
+             .tag("operation", operation)
+             .tag("outcome", outcome)
+             .register(this.meterRegistry)
+             .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void onTransition(
+            final CircuitBreaker.State from,
+            final CircuitBreaker.State to
+    ) {
+        log.warn("Inventory circuit breaker went from {} to {}", from, to);
+        Counter.builder("inventory.client.circuit.transitions")
+               .tag("from", from.name())
+               .tag("to", to.name())
+               .register(this.meterRegistry)
+               .increment();
+    }
+
+    private static RuntimeException unwrap(final Throwable error) {
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+}
@@ -1,21 +1,32 @@
 package com.example.orderservice.services;
 
+import com.example.orderservice.config.ContextData;
 import com.example.orderservice.config.ContextHolder;
 import com.example.orderservice.controllers.OrderException;
 import com.example.orderservice.dtos.*;
 import com.example.orderservice.kafka.IOrderEventProducer;
 import com.example.orderservice.models.Order;
 import com.example.orderservice.models.OrderProduct;
+import com.example.orderservice.models.OrderStatus;
 import com.example.orderservice.repository.IOrderRepository;
-import jakarta.transaction.Transactional;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -28,37 +39,89 @@ public class OrderService
     private final IProductServiceClient productServiceClient;
     private final IOrderEventProducer orderEventProducer;
     private final ContextHolder contextHolder;
+    private final IStockSagaService stockSagaService;
+    private final IIdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
 
+    private static final int MAX_PAGE_LIMIT = 100;
 
-    @Transactional
+
+    /**
+     * A single inventory call takes the stock and returns the prices, then the order is committed in its own
+     * transaction. Every step is recorded in a stock saga, so if the order fails the stock is given back
+     * in the background, even across restarts.
+     */
     @Override
     public OrderDto addOne(final OrderCreateDto orderCreateDto) {
-
         var order = new Order();
-
-        var productsOrder = this.getOrderProducts(orderCreateDto, order);
         order.setUserId(this.contextHolder.getUserId());
-        order.setProducts(productsOrder);
 
-        var orderSaved = this.orderRepository.save(order);
+        return this.place(order, orderCreateDto);
+    }
 
-        var hasStockUpdated = this.productServiceClient.updateStock(orderCreateDto.products());
+    @Override
+    public OrderDto acceptOne(final OrderCreateDto orderCreateDto) {
+        var order = Order.builder()
+                         .userId(this.contextHolder.getUserId())
+                         .status(OrderStatus.PENDING)
+                         .requestedProducts(this.serializeRequest(orderCreateDto))
+                         .products(List.of())
+                         .build();
 
-        if (!hasStockUpdated) {
-            throw new OrderException(OrderException.ERROR_UPDATE_STOCK);
+        return this.transactionTemplate.execute(status -> {
+            var dto = this.orderMapper.toDto(this.orderRepository.save(order));
+            this.idempotencyService.recordResponse(dto);
+            return dto;
+        });
+    }
+
+    @Override
+    public void completePending(final Long orderId) {
+        var claimed = this.orderRepository.updateStatus(orderId, OrderStatus.PENDING, OrderStatus.PROCESSING, null, LocalDateTime.now());
+        if (claimed == 0) {
+            return;
         }
 
-        var dto = this.orderMapper.toDto(orderSaved);
+        var order = this.orderRepository.findById(orderId)
+                                        .orElseThrow(() -> new OrderException(OrderException.ORDER_DOES_NOT_EXIST));
 
-        this.orderEventProducer.sendOrderCreate(dto);
+        // Orders resubmitted by the sweep run without the context of the request that placed them
+        var ownsContext = this.contextHolder.get() == null;
+        if (ownsContext) {
+            this.contextHolder.set(new ContextData("order-" + orderId, order.getUserId(), null));
+        }
 
-        return dto;
+        try {
+            this.place(order, this.deserializeRequest(order));
+            log.info("Order {} confirmed", orderId);
+        } catch (OrderException e) {
+            log.info("Order {} rejected: {}", orderId, e.getMessage());
+            this.reject(orderId, OrderStatus.PROCESSING, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error processing order {}", orderId, e);
+            this.reject(orderId, OrderStatus.PROCESSING, OrderException.ERROR_PROCESSING_ORDER);
+        } finally {
+            if (ownsContext) {
+                this.contextHolder.remove();
+            }
+        }
+    }
+
+    @Override
+    public void reject(
+            final Long orderId,
+            final OrderStatus from,
+            final String reason
+    ) {
+        this.orderRepository.updateStatus(orderId, from, OrderStatus.REJECTED, reason, LocalDateTime.now());
     }
 
     @Override
     public OrderDto getOne(final Long orderId) {
-        var order = this.orderRepository.findById(orderId)
-                                        .orElseThrow(() -> new OrderException(OrderException.ORDER_DOES_NOT_EXIST));
+        // Another user's order is answered like a missing one, so order ids can't be probed
+        var order = this.orderRepository.findByIdAndUserId(orderId, this.contextHolder.getUserId())
+                                        .orElseThrow(() -> new OrderException(HttpStatus.NOT_FOUND, OrderException.ORDER_DOES_NOT_EXIST));
 
         return this.orderMapper.toDto(order);
     }
@@ -72,38 +135,181 @@ public class OrderService
                     .toList();
     }
 
-    private List<OrderProduct> getOrderProducts(
+    /**
+     * One query for the ids of the page, on the (user_id, created_at, id) index, and one for those orders
+     * with their products, whatever the page size.
+     */
+    @Override
+    public OrderPageDto getPageForCurrentUser(
+            final String after,
+            final int limit
+    ) {
+        var userId = this.contextHolder.getUserId();
+        var pageable = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT));
+
+        List<Long> ids;
+        if (after == null) {
+            ids = this.orderRepository.findPageIds(userId, pageable);
+        } else {
+            var cursor = Cursor.decode(after);
+            ids = this.orderRepository.findPageIdsBefore(userId, cursor.createdAt(), cursor.id(), pageable);
+        }
+
+        var orderById = this.orderRepository.findWithProductsByIdIn(ids)
+                                            .stream()
+                                            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        var orders = ids.stream()
+                        .map(orderById::get)
+                        .toList();
+
+        var nextCursor = ids.size() < pageable.getPageSize()
+                         ? null
+                         : Cursor.of(orders.get(orders.size() - 1)).encode();
+
+        return OrderPageDto.builder()
+                           .orders(orders.stream()
+                                         .map(this.orderMapper::toDto)
+                                         .toList())
+                           .nextCursor(nextCursor)
+                           .build();
+    }
+
+    /**
+     * Position of the last order of a page, sent to clients as an opaque string.
+     */
+    private record Cursor(
+            LocalDateTime createdAt,
+            Long id
+    ) {
+
+        static Cursor of(final Order order) {
+            return new Cursor(order.getCreatedAt(), order.getId());
+        }
+
+        static Cursor decode(final String value) {
+            try {
+                var parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(",", 2);
+                return new Cursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new OrderException(OrderException.INVALID_CURSOR);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder()
+                         .withoutPadding()
+                         .encodeToString((this.createdAt + "," + this.id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private OrderDto place(
+            final Order order,
+            final OrderCreateDto orderCreateDto
+    ) {
+        var sagaId = this.stockSagaService.begin(orderCreateDto.products());
+
+        Map<Long, BigDecimal> priceById;
+        try {
+            priceById = this.productServiceClient.decreaseStockAndPrice(sagaId, orderCreateDto.products());
+        } catch (RuntimeException e) {
+            if (isStockNotTaken(e)) {
+                this.stockSagaService.abort(sagaId);
+            } else {
+                // Timed out or failed without an answer, the stock may have been taken
+                this.stockSagaService.compensate(sagaId);
+            }
+            throw e;
+        }
+
+        this.stockSagaService.stockTaken(sagaId);
+
+        try {
+            return this.transactionTemplate.execute(status -> this.createOrder(order, orderCreateDto, priceById, sagaId));
+        } catch (RuntimeException e) {
+            this.stockSagaService.compensate(sagaId);
+            throw e;
+        }
+    }
+
+    private OrderDto createOrder(
+            final Order order,
             final OrderCreateDto orderCreateDto,
-            final Order order
+            final Map<Long, BigDecimal> priceById,
+            final Long sagaId
     ) {
+        // An order accepted asynchronously is confirmed only if the sweep did not reject it meanwhile,
+        // and the row stays locked until commit so the sweep can't reject it afterwards
+        if (order.getId() != null
+            && this.orderRepository.updateStatus(order.getId(), OrderStatus.PROCESSING, OrderStatus.CONFIRMED, null, LocalDateTime.now()) == 0) {
+            throw new OrderException(OrderException.ORDER_INTERRUPTED);
+        }
 
-        var productsId = orderCreateDto.products()
-                                       .stream()
-                                       .map(OrderProductCreateDto::productId)
-                                       .toList();
+        var productsOrder = this.getOrderProducts(orderCreateDto, priceById, order);
+        order.setProducts(productsOrder);
+        order.setTotal(productsOrder.stream()
+                                    .map(OrderProduct::getSubtotal)
+                                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setRequestedProducts(null);
 
-        var productById = this.productServiceClient.getProductById(productsId);
+        var orderSaved = this.orderRepository.save(order);
+
+        var dto = this.orderMapper.toDto(orderSaved);
 
+        this.orderEventProducer.sendOrderCreate(dto);
+        this.stockSagaService.complete(sagaId);
+        this.idempotencyService.recordResponse(dto);
+
+        return dto;
+    }
+
+    /**
+     * Inventory answered that there is not enough stock, or was not called at all.
+     */
+    private static boolean isStockNotTaken(final RuntimeException e) {
+        return e instanceof OrderException orderException
+               && (OrderException.STOCK_NOT_AVAILABLE.equals(orderException.getMessage())
+                   || HttpStatus.SERVICE_UNAVAILABLE.equals(orderException.statusCode));
+    }
+
+    private String serializeRequest(final OrderCreateDto orderCreateDto) {
+        try {
+            return this.objectMapper.writeValueAsString(orderCreateDto);
+        } catch (JsonProcessingException e) {
+            throw new OrderException(OrderException.ERROR_PROCESSING_ORDER);
+        }
+    }
+
+    private OrderCreateDto deserializeRequest(final Order order) {
+        try {
+            return this.objectMapper.readValue(order.getRequestedProducts(), OrderCreateDto.class);
+        } catch (JsonProcessingException e) {
+            throw new OrderException(OrderException.ERROR_PROCESSING_ORDER);
+        }
+    }
+
+    private List<OrderProduct> getOrderProducts(
+            final OrderCreateDto orderCreateDto,
+            final Map<Long, BigDecimal> priceById,
+            final Order order
+    ) {
         return orderCreateDto.products()
                              .stream()
-                             .map(orderProductCreateDtoToOrderProduct(productById, order))
+                             .map(orderProductCreateDtoToOrderProduct(priceById, order))
                              .toList();
     }
 
     private static Function<OrderProductCreateDto, OrderProduct> orderProductCreateDtoToOrderProduct(
-            final Map<Long, ProductDto> productById,
+            final Map<Long, BigDecimal> priceById,
             final Order order
     ) {
         return orderProductCreateDto -> {
-            var productDto = Optional.ofNullable(productById.get(orderProductCreateDto.productId()))
-                                     .orElseThrow(() -> new OrderException(OrderException.PRODUCT_DOES_NOT_EXIST));
-
-            if (orderProductCreateDto.quantity() > productDto.quantity()) {
-                throw new OrderException(OrderException.STOCK_NOT_AVAILABLE);
-            }
+            var price = Optional.ofNullable(priceById.get(orderProductCreateDto.productId()))
+                                .orElseThrow(() -> new OrderException(OrderException.PRODUCT_DOES_NOT_EXIST));
 
             return OrderProduct.builder()
-                               .price(productDto.price())
+                               .price(price)
+                               .subtotal(price.multiply(BigDecimal.valueOf(orderProductCreateDto.quantity())))
                                .productId(orderProductCreateDto.productId())
                                .quantity(orderProductCreateDto.quantity())
                                .order(order)
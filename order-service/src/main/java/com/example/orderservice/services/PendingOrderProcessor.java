@@ -0,0 +1,119 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.controllers.OrderException;
+import com.example.orderservice.dtos.OrderCreateDto;
+import com.example.orderservice.dtos.OrderDto;
+import com.example.orderservice.models.OrderStatus;
+import com.example.orderservice.repository.IOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Asynchronous order placement: orders are saved as pending and finished by the bounded order worker pool.
+ * <p>
+ * Pending orders the pool never ran, because the instance died or the queue was full, are resubmitted by a sweep.
+ * Orders still waiting in the local queue are not queued again.
+ * Orders still processing long after they should have finished belong to a dead worker and are rejected,
+ * their stock saga gives back whatever stock was taken.
+ */
+@Slf4j
+@Component
+public class PendingOrderProcessor {
+
+    private final IOrderService orderService;
+    private final IOrderRepository orderRepository;
+    private final Executor orderWorkerExecutor;
+    private final Duration resubmitAfter;
+    private final Duration processingTimeout;
+    private final int sweepBatchSize;
+    private final Set<Long> queuedOrderIds = ConcurrentHashMap.newKeySet();
+
+    public PendingOrderProcessor(
+            final IOrderService orderService,
+            final IOrderRepository orderRepository,
+            @Qualifier("orderWorkerExecutor")
+            final Executor orderWorkerExecutor,
+            @Value("${api.order-workers.resubmit-after:1m}")
+            final Duration resubmitAfter,
+            @Value("${api.order-workers.processing-timeout:5m}")
+            final Duration processingTimeout,
+            @Value("${api.order-workers.sweep-batch-size:100}")
+            final int sweepBatchSize
+    ) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.orderWorkerExecutor = orderWorkerExecutor;
+        this.resubmitAfter = resubmitAfter;
+        this.processingTimeout = processingTimeout;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Saves the order as pending and queues it for a worker.
+     *
+     * @throws OrderException With 503 if the worker queue is full, the order is rejected right away.
+     */
+    public OrderDto accept(final OrderCreateDto orderCreateDto) {
+        var order = this.orderService.acceptOne(orderCreateDto);
+
+        try {
+            this.submit(order.id());
+        } catch (TaskRejectedException e) {
+            this.orderService.reject(order.id(), OrderStatus.PENDING, OrderException.ORDERS_BUSY);
+            throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, OrderException.ORDERS_BUSY);
+        }
+
+        return order;
+    }
+
+    @Scheduled(fixedDelayString = "${api.order-workers.sweep-interval-ms:30000}")
+    public void sweep() {
+        var now = LocalDateTime.now();
+        var page = PageRequest.of(0, this.sweepBatchSize);
+
+        for (var orderId : this.orderRepository.findIdsByStatusUpdatedBefore(OrderStatus.PROCESSING, now.minus(this.processingTimeout), page)) {
+            log.warn("Rejecting order {}, its processing was interrupted", orderId);
+            this.orderService.reject(orderId, OrderStatus.PROCESSING, OrderException.ORDER_INTERRUPTED);
+        }
+
+        for (var orderId : this.orderRepository.findIdsByStatusUpdatedBefore(OrderStatus.PENDING, now.minus(this.resubmitAfter), page)) {
+            try {
+                this.submit(orderId);
+            } catch (TaskRejectedException e) {
+                // Still busy, the next sweep tries again
+                return;
+            }
+        }
+    }
+
+    private void submit(final Long orderId) {
+        if (!this.queuedOrderIds.add(orderId)) {
+            return;
+        }
+
+        try {
+            this.orderWorkerExecutor.execute(() -> {
+                try {
+                    this.orderService.completePending(orderId);
+                } finally {
+                    this.queuedOrderIds.remove(orderId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            this.queuedOrderIds.remove(orderId);
+            throw e;
+        }
+    }
+}
@@ -1,77 +1,140 @@
 package com.example.orderservice.services;
 
+import com.example.orderservice.controllers.OrderException;
 import com.example.orderservice.dtos.OrderProductCreateDto;
-import com.example.orderservice.dtos.ProductDto;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductServiceClient
         implements IProductServiceClient {
 
-    @org.springframework.beans.factory.annotation.Qualifier("inventoryServiceRestTemplate")
     private final RestTemplate restTemplate;
-    
-    @Value("${inventory-service.url}")
-    private String baseUrl;
+    private final Executor inventoryCallExecutor;
+    private final InventoryCallGuard inventoryCallGuard;
+    private final String baseUrl;
+    private final Duration callTimeout;
     
     private final String PRODUCTS_BASE_PATH = "/products";
 
+    private static final String STOCK_SAGA_ID = "Stock-Saga-Id";
+
+    private static final ParameterizedTypeReference<Map<Long, BigDecimal>> PRICES_BY_ID = new ParameterizedTypeReference<>() {
+    };
+
+    public ProductServiceClient(
+            @Qualifier("inventoryServiceRestTemplate")
+            final RestTemplate restTemplate,
+            @Qualifier("inventoryCallExecutor")
+            final Executor inventoryCallExecutor,
+            final InventoryCallGuard inventoryCallGuard,
+            @Value("${inventory-service.url}")
+            final String baseUrl,
+            @Value("${api.inventory-calls.timeout:3s}")
+            final Duration callTimeout
+    ) {
+        this.restTemplate = restTemplate;
+        this.inventoryCallExecutor = inventoryCallExecutor;
+        this.inventoryCallGuard = inventoryCallGuard;
+        this.baseUrl = baseUrl;
+        this.callTimeout = callTimeout;
+    }
+
     @Override
-    public Optional<ProductDto> getProductById(final Long id) {
+    public boolean restoreStock(
+            final Long sagaId,
+            final List<OrderProductCreateDto> ids
+    ) {
         try {
-            var url = this.baseUrl + this.PRODUCTS_BASE_PATH + "/" + id;
+            org.springframework.http.ResponseEntity<Void> response = this.inventoryCallGuard.call(
+                    "increase-stock",
+                    () -> this.restTemplate.exchange(
+                            this.baseUrl + this.PRODUCTS_BASE_PATH + "/increase-stock",
+                            HttpMethod.PUT,
+                            new HttpEntity<>(ids, sagaHeaders(sagaId)),
+                            Void.class
+                    )
+            );
 
-            org.springframework.http.ResponseEntity<ProductDto> response = this.restTemplate.getForEntity(url, ProductDto.class);
-            return Optional.ofNullable(response.getBody());
+            return response.getStatusCode().is2xxSuccessful();
         } catch (Exception ex) {
             log.error(ex.getMessage());
-            return Optional.empty();
+            return false;
         }
     }
 
     @Override
-    public Map<Long, ProductDto> getProductById(final List<Long> ids) {
-        try {
-            var idsStringList = ids.stream()
-                                   .map(String::valueOf)
-                                   .collect(Collectors.joining(","));
+    public Map<Long, BigDecimal> decreaseStockAndPrice(
+            final Long sagaId,
+            final List<OrderProductCreateDto> ids
+    ) {
+        var result = new CompletableFuture<Map<Long, BigDecimal>>();
 
-            var url = this.baseUrl + this.PRODUCTS_BASE_PATH + "/by-ids?ids=" + idsStringList;
+        CompletableFuture.supplyAsync(() -> this.callDecreaseStockAndPrice(sagaId, ids), this.inventoryCallExecutor)
+                         .whenComplete((priceById, error) -> {
+                             if (error != null) {
+                                 result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                             } else if (!result.complete(priceById)) {
+                                 // The deadline completed the result first, the compensation of the saga gives it back
+                                 log.warn("Stock of saga {} decreased after the call deadline", sagaId);
+                             }
+                         });
 
-            org.springframework.http.ResponseEntity<ProductDto[]> response = this.restTemplate.getForEntity(url, ProductDto[].class);
-            return Arrays.stream(Objects.requireNonNull(response.getBody()))
-                         .collect(Collectors.toMap(ProductDto::id, productDto -> productDto));
-        } catch (Exception ex) {
+        try {
+            return result.orTimeout(this.callTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                         .join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof OrderException orderException) {
+                throw orderException;
+            }
             log.error(ex.getMessage());
-            return new HashMap<>();
+            throw new OrderException(OrderException.ERROR_UPDATE_STOCK);
         }
     }
 
-    @Override
-    public boolean updateStock(final List<OrderProductCreateDto> ids) {
+    private Map<Long, BigDecimal> callDecreaseStockAndPrice(
+            final Long sagaId,
+            final List<OrderProductCreateDto> ids
+    ) {
         try {
-            org.springframework.http.ResponseEntity<Void> response = this.restTemplate.exchange(
-                    this.baseUrl + this.PRODUCTS_BASE_PATH + "/decrease-stock",
-                    HttpMethod.PUT,
-                    new HttpEntity<>(ids),
-                    Void.class
+            org.springframework.http.ResponseEntity<Map<Long, BigDecimal>> response = this.inventoryCallGuard.call(
+                    "decrease-stock-and-price",
+                    () -> this.restTemplate.exchange(
+                            this.baseUrl + this.PRODUCTS_BASE_PATH + "/decrease-stock-and-price",
+                            HttpMethod.PUT,
+                            new HttpEntity<>(ids, sagaHeaders(sagaId)),
+                            PRICES_BY_ID
+                    )
             );
 
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception ex) {
-            log.error(ex.getMessage());
-            return false;
+            return Objects.requireNonNull(response.getBody());
+        } catch (HttpClientErrorException.BadRequest ex) {
+            throw new OrderException(OrderException.STOCK_NOT_AVAILABLE);
         }
     }
+
+    private static HttpHeaders sagaHeaders(final Long sagaId) {
+        var headers = new HttpHeaders();
+        headers.set(STOCK_SAGA_ID, String.valueOf(sagaId));
+        return headers;
+    }
 }
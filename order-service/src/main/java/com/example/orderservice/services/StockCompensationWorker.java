@@ -0,0 +1,163 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.config.ContextData;
+import com.example.orderservice.config.ContextHolder;
+import com.example.orderservice.dtos.OrderProductCreateDto;
+import com.example.orderservice.models.StockSaga;
+import com.example.orderservice.models.StockSagaStatus;
+import com.example.orderservice.repository.IStockSagaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Gives back the stock of failed orders by calling increase-stock, with exponential backoff until inventory accepts it.
+ * <p>
+ * A saga is claimed for {@code claim-timeout} in a short transaction and its call is made after the commit,
+ * so no lock or connection is held while inventory answers. Inventory gives the stock of a saga back at most once,
+ * so a call repeated after a timeout, or by another replica once the claim expired, is harmless.
+ * Sagas left midway by an instance that died are compensated once they are older than {@code stale-after},
+ * including those that never got an answer from inventory: it gives back only what the saga took.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockCompensationWorker {
+
+    private static final TypeReference<List<OrderProductCreateDto>> PRODUCTS = new TypeReference<>() {
+    };
+
+    private final IStockSagaRepository stockSagaRepository;
+    private final IProductServiceClient productServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ContextHolder contextHolder;
+
+    @Value("${api.stock-saga.batch-size:100}")
+    private int batchSize;
+
+    @Value("${api.stock-saga.stale-after:5m}")
+    private Duration staleAfter;
+
+    @Value("${api.stock-saga.claim-timeout:1m}")
+    private Duration claimTimeout;
+
+    @Value("${api.stock-saga.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${api.stock-saga.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    @Value("${api.stock-saga.retention:7d}")
+    private Duration retention;
+
+    /**
+     * Compensates the saga right away, unless another worker claimed it.
+     */
+    public void compensate(final Long sagaId) {
+        var now = LocalDateTime.now();
+
+        if (this.stockSagaRepository.claim(sagaId, now, now.plus(this.claimTimeout)) == 1) {
+            this.stockSagaRepository.findById(sagaId)
+                                    .ifPresent(this::attempt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.stock-saga.retry-interval-ms:1000}")
+    public void retry() {
+        this.transactionTemplate.executeWithoutResult(status -> this.recoverStale());
+
+        List<StockSaga> claimed;
+
+        do {
+            claimed = this.transactionTemplate.execute(status -> this.claimDue());
+            claimed.forEach(this::attempt);
+        } while (claimed.size() == this.batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${api.stock-saga.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        var deleted = this.stockSagaRepository.deleteBefore(
+                List.of(StockSagaStatus.COMPLETED, StockSagaStatus.COMPENSATED, StockSagaStatus.ABORTED),
+                LocalDateTime.now().minus(this.retention)
+        );
+
+        if (deleted > 0) {
+            log.info("Deleted {} finished stock sagas", deleted);
+        }
+    }
+
+    private void recoverStale() {
+        var now = LocalDateTime.now();
+        var sagas = this.stockSagaRepository.findStaleForUpdate(
+                List.of(StockSagaStatus.STARTED.name(), StockSagaStatus.STOCK_TAKEN.name()),
+                now.minus(this.staleAfter),
+                this.batchSize
+        );
+
+        for (var saga : sagas) {
+            log.warn("Recovering stock saga {}, its order was never committed", saga.getId());
+            saga.setStatus(StockSagaStatus.COMPENSATING);
+            saga.setNextAttemptAt(now);
+        }
+    }
+
+    /**
+     * Claims the due sagas, to be called in a transaction. They are compensated after it commits.
+     */
+    private List<StockSaga> claimDue() {
+        var now = LocalDateTime.now();
+        var sagas = this.stockSagaRepository.findDueForUpdate(now, this.batchSize);
+        sagas.forEach(saga -> saga.setNextAttemptAt(now.plus(this.claimTimeout)));
+        return sagas;
+    }
+
+    /**
+     * Calls inventory for a claimed saga, outside any transaction.
+     */
+    private void attempt(final StockSaga saga) {
+        List<OrderProductCreateDto> products;
+
+        try {
+            products = this.objectMapper.readValue(saga.getProducts(), PRODUCTS);
+        } catch (JsonProcessingException e) {
+            log.error("Aborting stock saga {}, its products are unreadable: {}", saga.getId(), e.getMessage());
+            this.stockSagaRepository.updateStatus(saga.getId(), List.of(StockSagaStatus.COMPENSATING), StockSagaStatus.ABORTED, LocalDateTime.now());
+            return;
+        }
+
+        this.contextHolder.set(new ContextData(saga.getCorrelationId(), null, null));
+        try {
+            if (this.productServiceClient.restoreStock(saga.getId(), products)) {
+                this.stockSagaRepository.updateStatus(saga.getId(), List.of(StockSagaStatus.COMPENSATING), StockSagaStatus.COMPENSATED, LocalDateTime.now());
+                log.info("Stock saga {} compensated after {} attempts", saga.getId(), saga.getAttempts() + 1);
+                return;
+            }
+        } finally {
+            this.contextHolder.remove();
+        }
+
+        var attempts = saga.getAttempts() + 1;
+        var now = LocalDateTime.now();
+        var nextAttemptAt = now.plus(this.backoff(attempts));
+        this.stockSagaRepository.scheduleRetry(saga.getId(), attempts, nextAttemptAt, now);
+        log.warn("Error compensating stock saga {}, attempt {}, retrying at {}", saga.getId(), attempts, nextAttemptAt);
+    }
+
+    private Duration backoff(final int attempts) {
+        var exponent = Math.min(attempts - 1, 20);
+        var backoff = this.initialBackoff.multipliedBy(1L << exponent);
+
+        return backoff.compareTo(this.maxBackoff) > 0 ? this.maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.config.ContextHolder;
+import com.example.orderservice.controllers.OrderException;
+import com.example.orderservice.dtos.OrderProductCreateDto;
+import com.example.orderservice.models.StockSaga;
+import com.example.orderservice.models.StockSagaStatus;
+import com.example.orderservice.repository.IStockSagaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@Slf4j
+@Service
+public class StockSagaService
+        implements IStockSagaService {
+
+    private final IStockSagaRepository stockSagaRepository;
+    private final StockCompensationWorker stockCompensationWorker;
+    private final ObjectMapper objectMapper;
+    private final ContextHolder contextHolder;
+    private final Executor inventoryCallExecutor;
+
+    public StockSagaService(
+            final IStockSagaRepository stockSagaRepository,
+            final StockCompensationWorker stockCompensationWorker,
+            final ObjectMapper objectMapper,
+            final ContextHolder contextHolder,
+            @Qualifier("inventoryCallExecutor")
+            final Executor inventoryCallExecutor
+    ) {
+        this.stockSagaRepository = stockSagaRepository;
+        this.stockCompensationWorker = stockCompensationWorker;
+        this.objectMapper = objectMapper;
+        this.contextHolder = contextHolder;
+        this.inventoryCallExecutor = inventoryCallExecutor;
+    }
+
+    @Override
+    public Long begin(final List<OrderProductCreateDto> products) {
+        var saga = this.stockSagaRepository.save(StockSaga.builder()
+                                                          .correlationId(this.contextHolder.getCorrelationId())
+                                                          .products(this.serializeProducts(products))
+                                                          .status(StockSagaStatus.STARTED)
+                                                          .build());
+        return saga.getId();
+    }
+
+    @Override
+    public void stockTaken(final Long sagaId) {
+        if (this.stockSagaRepository.updateStatus(sagaId, List.of(StockSagaStatus.STARTED), StockSagaStatus.STOCK_TAKEN, LocalDateTime.now()) == 0) {
+            throw new OrderException(OrderException.ORDER_INTERRUPTED);
+        }
+    }
+
+    @Override
+    public void abort(final Long sagaId) {
+        // A saga recovered meanwhile stays COMPENSATING, giving back stock that was not taken is harmless
+        this.stockSagaRepository.updateStatus(sagaId, List.of(StockSagaStatus.STARTED), StockSagaStatus.ABORTED, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Override
+    public void complete(final Long sagaId) {
+        if (this.stockSagaRepository.updateStatus(sagaId, List.of(StockSagaStatus.STOCK_TAKEN), StockSagaStatus.COMPLETED, LocalDateTime.now()) == 0) {
+            // Recovered as stale and being given back, the order must not keep the stock
+            throw new OrderException(OrderException.ORDER_INTERRUPTED);
+        }
+    }
+
+    @Override
+    public void compensate(final Long sagaId) {
+        try {
+            this.stockSagaRepository.startCompensation(sagaId, LocalDateTime.now());
+            this.inventoryCallExecutor.execute(() -> this.stockCompensationWorker.compensate(sagaId));
+        } catch (RuntimeException e) {
+            // The saga is still STARTED, STOCK_TAKEN or COMPENSATING, so the worker picks it up later
+            log.error("Error starting the compensation of stock saga {}: {}", sagaId, e.getMessage());
+        }
+    }
+
+    private String serializeProducts(final List<OrderProductCreateDto> products) {
+        try {
+            return this.objectMapper.writeValueAsString(products);
+        } catch (JsonProcessingException e) {
+            throw new OrderException(OrderException.ERROR_UPDATE_STOCK);
+        }
+    }
+}
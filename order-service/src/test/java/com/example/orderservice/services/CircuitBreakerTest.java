@@ -0,0 +1,93 @@
+package com.example.orderservice.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = 1_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void beforeEach() {
+        this.circuitBreaker = new CircuitBreaker(10, 4, 50, OPEN_NANOS, 2, this.clock::get,
+                                                 (from, to) -> this.transitions.add(to));
+    }
+
+    @Test
+    void onFailure_WhenFailureRateReachesThreshold_ShouldOpen() {
+        //Act
+        this.call(true);
+        this.call(false);
+        this.call(true);
+        this.call(false);
+
+        //Assert
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, this.circuitBreaker.getState());
+        Assertions.assertFalse(this.circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void onFailure_WhenBelowMinimumCalls_ShouldStayClosed() {
+        //Act
+        this.call(true);
+        this.call(true);
+        this.call(true);
+
+        //Assert
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, this.circuitBreaker.getState());
+    }
+
+    @Test
+    void tryAcquirePermission_WhenOpenDurationElapsed_ShouldCloseAfterSuccessfulTrialCalls() {
+        //Arrange
+        for (int i = 0; i < 4; i++) {
+            this.call(true);
+        }
+        this.clock.addAndGet(OPEN_NANOS);
+
+        //Act
+        Assertions.assertTrue(this.circuitBreaker.tryAcquirePermission());
+        Assertions.assertTrue(this.circuitBreaker.tryAcquirePermission());
+        Assertions.assertFalse(this.circuitBreaker.tryAcquirePermission());
+        this.circuitBreaker.onSuccess();
+        this.circuitBreaker.onSuccess();
+
+        //Assert
+        Assertions.assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+                                this.transitions);
+    }
+
+    @Test
+    void onFailure_WhenTrialCallFails_ShouldOpenAgain() {
+        //Arrange
+        for (int i = 0; i < 4; i++) {
+            this.call(true);
+        }
+        this.clock.addAndGet(OPEN_NANOS);
+
+        //Act
+        this.call(true);
+
+        //Assert
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, this.circuitBreaker.getState());
+        Assertions.assertFalse(this.circuitBreaker.tryAcquirePermission());
+    }
+
+    private void call(final boolean fails) {
+        Assertions.assertTrue(this.circuitBreaker.tryAcquirePermission());
+        if (fails) {
+            this.circuitBreaker.onFailure();
+        } else {
+            this.circuitBreaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.config.ContextHolder;
+import com.example.orderservice.controllers.OrderException;
+import com.example.orderservice.models.IdempotencyRecord;
+import com.example.orderservice.repository.IIdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String ID = "1:key";
+
+    @Mock
+    IIdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    ContextHolder contextHolder;
+    IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void beforeEach() {
+        this.idempotencyService = new IdempotencyService(this.idempotencyRecordRepository, this.contextHolder, new ObjectMapper(),
+                                                         new SimpleMeterRegistry(), Duration.ofHours(24), 100, Duration.ofMinutes(10));
+
+        lenient().when(this.contextHolder.getUserId())
+                 .thenReturn(1L);
+    }
+
+    @Test
+    void execute_WhenActionRecordsItsResponse_ShouldNotCompleteTheKeyAgain() {
+        //Arrange
+        when(this.idempotencyRecordRepository.claim(eq(ID), anyString(), any(), any()))
+                .thenReturn(1);
+        when(this.idempotencyRecordRepository.complete(eq(ID), eq(IdempotencyRecord.Status.COMPLETED), eq("\"placed\"")))
+                .thenReturn(1);
+
+        //Act
+        var response = this.idempotencyService.execute("key", "request", String.class, () -> {
+            this.idempotencyService.recordResponse("placed");
+            return "placed";
+        });
+
+        //Assert
+        Assertions.assertEquals("placed", response);
+        verify(this.idempotencyRecordRepository, times(1)).complete(any(), any(), any());
+        Assertions.assertEquals("placed", this.idempotencyService.execute("key", "request", String.class, () -> "again"));
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldReleaseTheKey() {
+        //Arrange
+        when(this.idempotencyRecordRepository.claim(eq(ID), anyString(), any(), any()))
+                .thenReturn(1);
+
+        //Act
+        Assertions.assertThrows(OrderException.class, () -> this.idempotencyService.execute("key", "request", String.class, () -> {
+            throw new OrderException(OrderException.STOCK_NOT_AVAILABLE);
+        }));
+
+        //Assert
+        verify(this.idempotencyRecordRepository).release(ID);
+        verify(this.idempotencyRecordRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void execute_WhenKeyIsStillInProgress_ShouldAnswerConflictWithoutRunningTheAction() {
+        //Arrange
+        when(this.idempotencyRecordRepository.claim(eq(ID), anyString(), any(), any()))
+                .thenReturn(0);
+        var record = IdempotencyRecord.builder()
+                                      .id(ID)
+                                      .requestHash(this.hashOf("request"))
+                                      .status(IdempotencyRecord.Status.IN_PROGRESS)
+                                      .build();
+        when(this.idempotencyRecordRepository.findById(ID))
+                .thenReturn(Optional.of(record));
+
+        //Act
+        var exception = Assertions.assertThrows(OrderException.class, () -> this.idempotencyService.execute("key", "request", String.class, () -> {
+            throw new AssertionError("The action ran twice");
+        }));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.CONFLICT, exception.statusCode);
+    }
+
+    @Test
+    void recordResponse_WhenNoKeyIsClaimed_ShouldDoNothing() {
+        //Act
+        this.idempotencyService.recordResponse("placed");
+
+        //Assert
+        verifyNoInteractions(this.idempotencyRecordRepository);
+    }
+
+    private String hashOf(final String request) {
+        try {
+            var body = new ObjectMapper().writeValueAsString(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.controllers.OrderException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class InventoryCallGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void afterEach() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void call_WhenBulkheadIsFull_ShouldRejectWithServiceUnavailable() throws Exception {
+        //Arrange
+        var guard = this.guard(1, false, Duration.ZERO);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = CompletableFuture.supplyAsync(() -> guard.call("decrease-stock", () -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }), this.executor);
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        //Act
+        var exception = Assertions.assertThrows(OrderException.class, () -> guard.call("decrease-stock", () -> "second"));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.statusCode);
+        Assertions.assertEquals(1, this.meterRegistry.get("inventory.client.calls")
+                                                     .tag("outcome", "bulkhead_full")
+                                                     .timer()
+                                                     .count());
+        release.countDown();
+        Assertions.assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("third", guard.call("decrease-stock", () -> "third"));
+    }
+
+    @Test
+    void hedgedCall_WhenFirstAttemptIsSlow_ShouldReturnTheSecondAttempt() {
+        //Arrange
+        var guard = this.guard(2, true, Duration.ofMillis(20));
+        var attempts = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        //Act
+        var result = guard.hedgedCall("lookup", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(release);
+                return "first";
+            }
+            return "second";
+        });
+
+        //Assert
+        Assertions.assertEquals("second", result);
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertEquals(1, this.meterRegistry.get("inventory.client.hedges")
+                                                     .counter()
+                                                     .count());
+        release.countDown();
+    }
+
+    @Test
+    void hedgedCall_WhenFirstAttemptIsFast_ShouldNotSendASecondAttempt() {
+        //Arrange
+        var guard = this.guard(2, true, Duration.ofSeconds(5));
+        var attempts = new AtomicInteger();
+
+        //Act
+        var result = guard.hedgedCall("lookup", () -> "attempt-" + attempts.incrementAndGet());
+
+        //Assert
+        Assertions.assertEquals("attempt-1", result);
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertNull(this.meterRegistry.find("inventory.client.hedges").counter());
+    }
+
+    private InventoryCallGuard guard(
+            final int maxConcurrent,
+            final boolean hedgingEnabled,
+            final Duration hedgingDelay
+    ) {
+        return new InventoryCallGuard(this.meterRegistry, this.executor, maxConcurrent, Duration.ofMillis(10),
+                                      50, 20, 50, Duration.ofSeconds(10), 5, hedgingEnabled, hedgingDelay);
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.OrderServiceApplication;
+import com.example.orderservice.models.Order;
+import com.example.orderservice.models.OrderProduct;
+import com.example.orderservice.repository.IOrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequence-allocated ids across service restarts, each run being a new application context on the same database.
+ * Needs Docker for the Postgres container.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderIdAllocationTest {
+
+    private static final long LEGACY_ORDER_ID = 5_000L;
+    private static final long LEGACY_LINE_ID = 7_000L;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void save_WhenServiceRestarts_ShouldNotReuseAllocatedIds() {
+        //Arrange
+        List<Long> firstRun;
+        try (var context = start()) {
+            firstRun = saveOrders(context, 3);
+        }
+
+        //Act
+        List<Long> secondRun;
+        try (var context = start()) {
+            secondRun = saveOrders(context, 3);
+        }
+
+        //Assert
+        Assertions.assertTrue(Collections.min(secondRun) > Collections.max(firstRun),
+                              "Ids " + secondRun + " reuse the block of " + firstRun);
+    }
+
+    @Test
+    void start_WhenIdsWereAllocatedByIdentity_ShouldMoveTheSequencesPastThem() {
+        //Arrange
+        try (var context = start()) {
+            var orderId = saveOrders(context, 1).get(0);
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            // As left by identity columns: ids far ahead of sequences that were never used
+            jdbcTemplate.update("UPDATE order_products SET id = ? WHERE order_id = ?", LEGACY_LINE_ID, orderId);
+            jdbcTemplate.update("INSERT INTO orders (id, user_id, status, created_at, updated_at) VALUES (?, 1, 'CONFIRMED', now(), now())", LEGACY_ORDER_ID);
+            jdbcTemplate.execute("ALTER SEQUENCE orders_seq RESTART WITH 1");
+            jdbcTemplate.execute("ALTER SEQUENCE order_products_seq RESTART WITH 1");
+        }
+
+        //Act
+        Order order;
+        try (var context = start()) {
+            var orderRepository = context.getBean(IOrderRepository.class);
+            order = orderRepository.save(newOrder());
+        }
+
+        //Assert
+        Assertions.assertTrue(order.getId() > LEGACY_ORDER_ID, "Order id " + order.getId());
+        Assertions.assertTrue(order.getProducts().get(0).getId() > LEGACY_LINE_ID, "Line id " + order.getProducts().get(0).getId());
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "eureka.client.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.show-sql=false",
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword()
+                )
+                .run();
+    }
+
+    private static List<Long> saveOrders(
+            final ConfigurableApplicationContext context,
+            final int count
+    ) {
+        var orderRepository = context.getBean(IOrderRepository.class);
+        var ids = new ArrayList<Long>(count);
+
+        for (int i = 0; i < count; i++) {
+            ids.add(orderRepository.save(newOrder()).getId());
+        }
+        return ids;
+    }
+
+    private static Order newOrder() {
+        var order = new Order();
+        var products = new ArrayList<OrderProduct>();
+
+        products.add(OrderProduct.builder()
+                                 .productId(1L)
+                                 .quantity(1)
+                                 .price(BigDecimal.TEN)
+                                 .order(order)
+                                 .build());
+
+        order.setUserId(1L);
+        order.setProducts(products);
+        return order;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.orderservice.services;
+
+import com.example.orderservice.models.Order;
+import com.example.orderservice.models.OrderProduct;
+import com.example.orderservice.repository.IOrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts per second when persisting large carts, with and without JDBC batching.
+ * A batch size of 1 sends every row on its own round trip, as identity ids forced before.
+ * <p>
+ * Not picked up by the default surefire includes, run it explicitly with
+ * {@code mvn test -Dtest=OrderPersistenceBenchmark}. Needs Docker for the Postgres container.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.show-sql=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+class OrderPersistenceBenchmark {
+
+    private static final int ORDERS = 200;
+    private static final int WARM_UP_ORDERS = 20;
+    private static final int CART_SIZE = 100;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(final DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private IOrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        this.jdbcTemplate.execute("TRUNCATE order_products, orders");
+    }
+
+    @Test
+    void unbatchedInserts() {
+        this.run("unbatched", 1);
+    }
+
+    @Test
+    void batchedInserts() {
+        this.run("batched", Order.ID_ALLOCATION_SIZE);
+    }
+
+    private void run(
+            final String name,
+            final int batchSize
+    ) {
+        this.insertOrders(WARM_UP_ORDERS, batchSize);
+
+        var startedAt = System.nanoTime();
+        this.insertOrders(ORDERS, batchSize);
+        var elapsed = System.nanoTime() - startedAt;
+
+        var rows = ORDERS * (CART_SIZE + 1);
+        log.info("{}: {} orders of {} lines in {} ms, {} inserts/s",
+                 name, ORDERS, CART_SIZE, TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(rows / (elapsed / 1e9)));
+
+        assertEquals(WARM_UP_ORDERS + ORDERS, this.orderRepository.count());
+    }
+
+    private void insertOrders(
+            final int count,
+            final int batchSize
+    ) {
+        for (int i = 0; i < count; i++) {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                this.entityManager.unwrap(Session.class)
+                                  .setJdbcBatchSize(batchSize);
+                this.orderRepository.save(newOrder());
+            });
+        }
+    }
+
+    private static Order newOrder() {
+        var order = new Order();
+        var products = new ArrayList<OrderProduct>(CART_SIZE);
+
+        for (int i = 0; i < CART_SIZE; i++) {
+            products.add(OrderProduct.builder()
+                                     .productId((long) i + 1)
+                                     .quantity(1)
+                                     .price(BigDecimal.TEN)
+                                     .order(order)
+                                     .build());
+        }
+
+        order.setUserId(1L);
+        order.setProducts(products);
+        return order;
+    }
+}
@@ -5,14 +5,21 @@ import com.example.orderservice.controllers.OrderException;
 import com.example.orderservice.dtos.*;
 import com.example.orderservice.kafka.IOrderEventProducer;
 import com.example.orderservice.models.Order;
+import com.example.orderservice.models.OrderStatus;
 import com.example.orderservice.repository.IOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Collections;
@@ -35,6 +42,14 @@ class OrderServiceTest {
     IOrderEventProducer orderEventProducer;
     @Mock
     ContextHolder contextHolder;
+    @Mock
+    IStockSagaService stockSagaService;
+    @Mock
+    IIdempotencyService idempotencyService;
+    @Mock
+    TransactionTemplate transactionTemplate;
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
     @InjectMocks
     OrderService orderService;
     private ProductDto productDto;
@@ -71,10 +86,10 @@ class OrderServiceTest {
                                            .products(List.of(orderProductCreate))
                                            .build();
 
-        when(this.productServiceClient.getProductById(anyList()))
-                .thenReturn(Map.of(this.productDto.id(), this.productDto));
-        when(this.productServiceClient.updateStock(orderCreateDto.products()))
-                .thenReturn(true);
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenReturn(Map.of(this.productDto.id(), this.productDto.price()));
+        when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
         when(this.orderRepository.save(any(Order.class)))
                 .thenReturn(new Order());
         when(this.orderMapper.toDto(any(Order.class)))
@@ -89,6 +104,13 @@ class OrderServiceTest {
 
         //Assert
         Assertions.assertNotNull(orderCreated);
+        var orderSaved = ArgumentCaptor.forClass(Order.class);
+        verify(this.orderRepository).save(orderSaved.capture());
+        Assertions.assertEquals(0, this.productDto.price()
+                                                  .multiply(BigDecimal.valueOf(20))
+                                                  .compareTo(orderSaved.getValue().getTotal()));
+        verify(this.stockSagaService).complete(anyLong());
+        verify(this.stockSagaService, never()).compensate(anyLong());
     }
 
     @Test
@@ -104,8 +126,10 @@ class OrderServiceTest {
                                            .products(List.of(orderProductCreate))
                                            .build();
 
-        when(this.productServiceClient.getProductById(anyList()))
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
                 .thenReturn(Collections.emptyMap());
+        when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
 
         //Act and Assert
         Assertions.assertThrows(
@@ -113,6 +137,7 @@ class OrderServiceTest {
                 () -> this.orderService.addOne(orderCreateDto),
                 OrderException.PRODUCT_DOES_NOT_EXIST
         );
+        verify(this.stockSagaService).compensate(anyLong());
     }
 
     @Test
@@ -128,8 +153,8 @@ class OrderServiceTest {
                                            .products(List.of(orderProductCreate))
                                            .build();
 
-        when(this.productServiceClient.getProductById(anyList()))
-                .thenReturn(Map.of(this.productDto.id(), this.productDto));
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenThrow(new OrderException(OrderException.STOCK_NOT_AVAILABLE));
 
         //Act and Assert
         Assertions.assertThrows(
@@ -137,10 +162,12 @@ class OrderServiceTest {
                 () -> this.orderService.addOne(orderCreateDto),
                 OrderException.STOCK_NOT_AVAILABLE
         );
+        verify(this.stockSagaService).abort(anyLong());
+        verify(this.stockSagaService, never()).compensate(anyLong());
     }
 
     @Test
-    void addOne_WhenStockNotUpdated_ShouldThrowOrderException() {
+    void addOne_WhenStockNotUpdated_ShouldCompensateTheStockSaga() {
         //Arrange
         var orderProductCreate = OrderProductCreateDto
                 .builder()
@@ -152,48 +179,160 @@ class OrderServiceTest {
                                            .products(List.of(orderProductCreate))
                                            .build();
 
-        when(this.productServiceClient.getProductById(anyList()))
-                .thenReturn(Map.of(this.productDto.id(), this.productDto));
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenThrow(new OrderException(OrderException.ERROR_UPDATE_STOCK));
+
+        //Act and Assert
+        Assertions.assertThrows(
+                OrderException.class,
+                () -> this.orderService.addOne(orderCreateDto),
+                OrderException.ERROR_UPDATE_STOCK
+        );
+        verify(this.stockSagaService).compensate(anyLong());
+        verify(this.stockSagaService, never()).abort(anyLong());
+    }
+
+    @Test
+    void addOne_WhenStockSagaWasRecoveredMeanwhile_ShouldNotCreateTheOrder() {
+        //Arrange
+        var orderProductCreate = OrderProductCreateDto
+                .builder()
+                .productId(this.productDto.id())
+                .quantity(20)
+                .build();
+
+        var orderCreateDto = OrderCreateDto.builder()
+                                           .products(List.of(orderProductCreate))
+                                           .build();
+
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenReturn(Map.of(this.productDto.id(), this.productDto.price()));
+        when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
         when(this.orderRepository.save(any(Order.class)))
                 .thenReturn(new Order());
-        when(this.productServiceClient.updateStock(orderCreateDto.products()))
-                .thenReturn(false);
+        doThrow(new OrderException(OrderException.ORDER_INTERRUPTED)).when(this.stockSagaService)
+                                                                       .complete(anyLong());
 
         //Act and Assert
         Assertions.assertThrows(
                 OrderException.class,
                 () -> this.orderService.addOne(orderCreateDto),
-                OrderException.ERROR_UPDATE_STOCK
+                OrderException.ORDER_INTERRUPTED
         );
+        verify(this.idempotencyService, never()).recordResponse(any());
+        verify(this.stockSagaService).compensate(anyLong());
+    }
+
+    @Test
+    void completePending_WhenProductDoesNotHaveStock_ShouldRejectTheOrder() throws Exception {
+        //Arrange
+        var orderCreateDto = OrderCreateDto.builder()
+                                           .products(List.of(OrderProductCreateDto.builder()
+                                                                                  .productId(this.productDto.id())
+                                                                                  .quantity(this.productDto.quantity() + 1)
+                                                                                  .build()))
+                                           .build();
+        var order = Order.builder()
+                         .id(1L)
+                         .userId(1L)
+                         .status(OrderStatus.PROCESSING)
+                         .requestedProducts(this.objectMapper.writeValueAsString(orderCreateDto))
+                         .build();
+
+        when(this.orderRepository.updateStatus(eq(1L), eq(OrderStatus.PENDING), eq(OrderStatus.PROCESSING), isNull(), any()))
+                .thenReturn(1);
+        when(this.orderRepository.findById(1L))
+                .thenReturn(Optional.of(order));
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenThrow(new OrderException(OrderException.STOCK_NOT_AVAILABLE));
+
+        //Act
+        this.orderService.completePending(1L);
+
+        //Assert
+        verify(this.orderRepository).updateStatus(eq(1L), eq(OrderStatus.PROCESSING), eq(OrderStatus.REJECTED),
+                                                  eq(OrderException.STOCK_NOT_AVAILABLE), any());
+        verify(this.orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void completePending_WhenRejectedBySweepMeanwhile_ShouldNotConfirmTheOrder() throws Exception {
+        //Arrange
+        var orderCreateDto = OrderCreateDto.builder()
+                                           .products(List.of(OrderProductCreateDto.builder()
+                                                                                  .productId(this.productDto.id())
+                                                                                  .quantity(20)
+                                                                                  .build()))
+                                           .build();
+        var order = Order.builder()
+                         .id(1L)
+                         .userId(1L)
+                         .status(OrderStatus.PROCESSING)
+                         .requestedProducts(this.objectMapper.writeValueAsString(orderCreateDto))
+                         .build();
+
+        when(this.orderRepository.updateStatus(eq(1L), eq(OrderStatus.PENDING), eq(OrderStatus.PROCESSING), isNull(), any()))
+                .thenReturn(1);
+        when(this.orderRepository.findById(1L))
+                .thenReturn(Optional.of(order));
+        when(this.productServiceClient.decreaseStockAndPrice(anyLong(), eq(orderCreateDto.products())))
+                .thenReturn(Map.of(this.productDto.id(), this.productDto.price()));
+        when(this.transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
+        when(this.orderRepository.updateStatus(eq(1L), eq(OrderStatus.PROCESSING), eq(OrderStatus.CONFIRMED), isNull(), any()))
+                .thenReturn(0);
+
+        //Act
+        this.orderService.completePending(1L);
+
+        //Assert
+        verify(this.orderRepository, never()).save(any(Order.class));
+        verify(this.stockSagaService).compensate(anyLong());
+        verify(this.stockSagaService, never()).complete(anyLong());
     }
 
     @Test
     void getOne_WhenOrderExists_ShouldReturnOrder() {
         //Arrange
-        when(this.orderRepository.findById(anyLong()))
+        when(this.orderRepository.findByIdAndUserId(1L, 1L))
                 .thenReturn(Optional.of(new Order()));
         when(this.orderMapper.toDto(any(Order.class)))
                 .thenReturn(OrderDto.builder()
                                     .build());
 
         //Act
-        var orderGet = this.orderService.getOne(anyLong());
+        var orderGet = this.orderService.getOne(1L);
 
         //Assert
         Assertions.assertNotNull(orderGet);
     }
 
     @Test
-    void getOne_WhenOrderDoesNotExists_ShouldReturnOrder() {
+    void getOne_WhenOrderDoesNotExist_ShouldThrowNotFound() {
         //Arrange
-        when(this.orderRepository.findById(anyLong()))
+        when(this.orderRepository.findByIdAndUserId(1L, 1L))
                 .thenReturn(Optional.empty());
 
-        //Act and Assert
-        Assertions.assertThrows(
-                OrderException.class,
-                () -> this.orderService.getOne(anyLong()),
-                OrderException.ORDER_DOES_NOT_EXIST
-        );
+        //Act
+        var exception = Assertions.assertThrows(OrderException.class, () -> this.orderService.getOne(1L));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, exception.statusCode);
+        Assertions.assertEquals(OrderException.ORDER_DOES_NOT_EXIST, exception.getMessage());
+    }
+
+    @Test
+    void getOne_WhenOrderBelongsToAnotherUser_ShouldThrowNotFound() {
+        //Arrange
+        when(this.orderRepository.findByIdAndUserId(2L, 1L))
+                .thenReturn(Optional.empty());
+
+        //Act
+        var exception = Assertions.assertThrows(OrderException.class, () -> this.orderService.getOne(2L));
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, exception.statusCode);
+        verify(this.orderRepository, never()).findById(anyLong());
     }
 }
@@ -0,0 +1,29 @@
+package com.example.userservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the covering index auth-service reads credentials from, so a login is answered by an index-only scan.
+ * JPA can't declare INCLUDE columns, hence the plain SQL. Does nothing once the index exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserLoginIndexMigration
+        implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        this.jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS users_username_login_idx ON users (username) INCLUDE (password, id, name, email)"
+        );
+        log.info("Login index users_username_login_idx is in place");
+    }
+}
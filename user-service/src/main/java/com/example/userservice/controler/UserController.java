@@ -108,6 +108,12 @@ public class UserController {
                                                   schema = @Schema(implementation = UserDto.class))
                                  }),
                     @ApiResponse(responseCode = "400",
+                                 content = {
+                                         @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                  schema = @Schema(implementation = ProblemDetail.class))
+                                 }),
+                    @ApiResponse(responseCode = "404",
+                                 description = "The user does not exist anymore",
                                  content = {
                                          @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                                                   schema = @Schema(implementation = ProblemDetail.class))
@@ -16,4 +16,12 @@ public class UserException
     public UserException(final HttpStatusCode statusCode) {
         this.statusCode = statusCode;
     }
+
+    public UserException(
+            final HttpStatusCode statusCode,
+            final String message
+    ) {
+        super(message);
+        this.statusCode = statusCode;
+    }
 }
@@ -7,6 +7,7 @@ import com.example.userservice.repository.IUserRepository;
 import com.example.userservice.utils.HashUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -40,7 +41,7 @@ public class UserService
     @Override
     public UserDto getUser() {
         var userSaved = this.userRepository.findByUsername(this.contextHolder.getUsername())
-                                           .orElseThrow(() -> new UserException(UserException.USER_NOT_FOUND));
+                                           .orElseThrow(() -> new UserException(HttpStatus.NOT_FOUND, UserException.USER_NOT_FOUND));
 
         return this.userMapper.toDto(userSaved);
     }
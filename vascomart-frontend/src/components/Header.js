@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import '../styles/Header.css';
+import { clearTokens } from '../services/authService';
 
 const Header = () => {
   const location = useLocation();
@@ -21,8 +22,7 @@ const Header = () => {
   const isActive = (path) => location.pathname === path ? 'active' : '';
 
   const handleLogout = () => {
-    localStorage.removeItem('token');
-    localStorage.removeItem('user');
+    clearTokens();
     setIsLoggedIn(false);
     navigate('/login');
   };
@@ -1,4 +1,5 @@
 import React, { createContext, useContext, useState, useEffect, useCallback } from 'react';
+import { clearTokens } from '../services/authService';
 
 const AuthContext = createContext();
 
@@ -46,8 +47,7 @@ export function AuthProvider({ children }) {
   const logout = useCallback(() => {
     setCurrentUser(null);
     setAuthToken(null);
-    localStorage.removeItem('user');
-    localStorage.removeItem('token');
+    clearTokens();
     return true; // Indicate success
   }, []);
 
@@ -3,6 +3,7 @@ import { Link } from 'react-router-dom';
 import { FiLogIn, FiLock, FiPhone, FiUser } from 'react-icons/fi';
 import { FcGoogle } from 'react-icons/fc';
 import '../styles/Auth.css';
+import { storeTokens } from '../services/authService';
 
 
 const Login = () => {
@@ -57,13 +58,13 @@ const Login = () => {
       }
 
       if (res.ok) {
-        // Store user data in localStorage
+        // The access and refresh tokens come back as headers
+        storeTokens(res);
         const userData = {
           id: data?.userId || '1',
           username: username,
-          token: data?.token
+          token: localStorage.getItem('token')
         };
-        localStorage.setItem('token', data?.token);
         localStorage.setItem('user', JSON.stringify(userData));
         
         // Force a page reload to update the header
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { getProductImage } from '../utils/productImages';
+import { authFetch } from '../services/authService';
 import './Orders.css';
 
 // Icons (you can replace with actual icon components if using an icon library)
@@ -32,13 +33,12 @@ const Orders = () => {
       setError('');
       
       // Fetch products from inventory service
-      const response = await fetch('http://localhost:8087/api/v1/products', {
+      const response = await authFetch('http://localhost:8087/api/v1/products', {
         method: 'GET',
         credentials: 'include',
         headers: {
           'Content-Type': 'application/json',
-          'Accept': 'application/json',
-          'Authorization': `Bearer ${localStorage.getItem('token')}`
+          'Accept': 'application/json'
         }
       });
       
@@ -93,13 +93,12 @@ const Orders = () => {
       setSuccess('');
 
       console.log('Sending order request with items:', items);
-      const response = await fetch('http://localhost:8087/api/v1/orders/users/me', {
+      const response = await authFetch('http://localhost:8087/api/v1/orders/users/me', {
         method: 'POST',
         credentials: 'include',
         headers: {
           'Content-Type': 'application/json',
-          'Accept': 'application/json',
-          'Authorization': `Bearer ${localStorage.getItem('token')}`
+          'Accept': 'application/json'
         },
         body: JSON.stringify({ products: items })
       });
@@ -0,0 +1,78 @@
+const AUTH_BASE_URL = 'http://localhost:8087/api/v1/auth';
+const REFRESH_TOKEN = 'Refresh-Token';
+
+// Shared by concurrent requests, a refresh token can only be redeemed once
+let pendingRefresh = null;
+
+// Keeps the tokens sent back by login and refresh, which come as response headers
+export const storeTokens = (response) => {
+  const authorization = response.headers.get('Authorization');
+  const refreshToken = response.headers.get(REFRESH_TOKEN);
+
+  if (authorization) {
+    localStorage.setItem('token', authorization.replace('Bearer ', ''));
+  }
+  if (refreshToken) {
+    localStorage.setItem('refreshToken', refreshToken);
+  }
+};
+
+export const clearTokens = () => {
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+  localStorage.removeItem('user');
+};
+
+const refreshTokens = async () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    return false;
+  }
+
+  const response = await fetch(`${AUTH_BASE_URL}/refresh`, {
+    method: 'POST',
+    headers: { [REFRESH_TOKEN]: refreshToken },
+  });
+
+  if (response.ok) {
+    storeTokens(response);
+    return true;
+  }
+
+  // 503 means the refresh token is still valid, only a rejected one ends the session
+  if (response.status === 401) {
+    clearTokens();
+  }
+  return false;
+};
+
+// fetch with the access token, refreshing it once and retrying when it has expired
+export const authFetch = async (url, options = {}) => {
+  const send = () => fetch(url, {
+    ...options,
+    headers: {
+      ...options.headers,
+      'Authorization': `Bearer ${localStorage.getItem('token')}`,
+    },
+  });
+
+  const response = await send();
+  if (response.status !== 401) {
+    return response;
+  }
+
+  if (!pendingRefresh) {
+    pendingRefresh = refreshTokens().finally(() => {
+      pendingRefresh = null;
+    });
+  }
+
+  if (!(await pendingRefresh)) {
+    if (!localStorage.getItem('token')) {
+      window.location.href = '/login';
+    }
+    return response;
+  }
+
+  return send();
+};